@@ -32,16 +32,19 @@ const AdminDashboard = () => {
         const warehousesResponse = await axios.get('http://localhost:8080/api/warehouses', config);
         setWarehouses(warehousesResponse.data);
 
-        // Fetch inventory
-        const inventoryResponse = await axios.get('http://localhost:8080/api/inventory', config);
-        setInventory(inventoryResponse.data);
+        // Fetch totals computed on the server instead of downloading the whole inventory
+        const statsResponse = await axios.get('http://localhost:8080/api/warehouses/stats', config);
+
+        // Fetch only the items that need restocking
+        const lowStockResponse = await axios.get('http://localhost:8080/api/inventory/reorder', config);
+        setInventory(lowStockResponse.data);
 
         // Update stats
         setStats({
           totalUsers: 150, // This would be replaced with actual API call
-          totalWarehouses: warehousesResponse.data.length,
-          totalInventory: inventoryResponse.data.length,
-          lowStockItems: inventoryResponse.data.filter(item => item.quantity < item.reorderLevel).length
+          totalWarehouses: statsResponse.data.warehouseCount,
+          totalInventory: statsResponse.data.skuCount,
+          lowStockItems: statsResponse.data.restockCount
         });
 
         setLoading(false);
@@ -165,21 +168,20 @@ const AdminDashboard = () => {
                   </thead>
                   <tbody>
                     {inventory
-                      .filter(item => item.quantity < item.reorderLevel)
                       .slice(0, 5)
                       .map(item => (
-                        <tr key={item.id}>
-                          <td>{item.id}</td>
-                          <td>{item.name}</td>
+                        <tr key={item.inventoryId}>
+                          <td>{item.inventoryId}</td>
+                          <td>{item.itemName}</td>
                           <td>
-                            <span className={item.quantity < item.reorderLevel ? "text-danger" : ""}>
+                            <span className="text-danger">
                               {item.quantity}
                             </span>
                           </td>
-                          <td>{item.reorderLevel}</td>
+                          <td>{item.reorderPoint}</td>
                           <td>
-                            <Button as={Link} to={`/inventory/${item.id}`} variant="link" size="sm">View</Button>
-                            <Button as={Link} to={`/inventory/edit/${item.id}`} variant="link" size="sm">Edit</Button>
+                            <Button as={Link} to={`/inventory/${item.inventoryId}`} variant="link" size="sm">View</Button>
+                            <Button as={Link} to={`/inventory/edit/${item.inventoryId}`} variant="link" size="sm">Edit</Button>
                           </td>
                         </tr>
                       ))}
@@ -32,15 +32,18 @@ const LogisticsManagerDashboard = () => {
         const warehousesResponse = await axios.get('http://localhost:8080/api/warehouses', config);
         setWarehouses(warehousesResponse.data);
 
-        // Fetch inventory
-        const inventoryResponse = await axios.get('http://localhost:8080/api/inventory', config);
-        setInventory(inventoryResponse.data);
+        // Fetch totals computed on the server instead of downloading the whole inventory
+        const statsResponse = await axios.get('http://localhost:8080/api/warehouses/stats', config);
+
+        // Fetch only the items that need restocking
+        const lowStockResponse = await axios.get('http://localhost:8080/api/inventory/reorder', config);
+        setInventory(lowStockResponse.data);
 
         // Update stats
         setStats({
-          totalWarehouses: warehousesResponse.data.length,
-          totalInventory: inventoryResponse.data.length,
-          lowStockItems: inventoryResponse.data.filter(item => item.quantity < item.reorderLevel).length,
+          totalWarehouses: statsResponse.data.warehouseCount,
+          totalInventory: statsResponse.data.skuCount,
+          lowStockItems: statsResponse.data.restockCount,
           pendingTransfers: 3 // This would be replaced with actual API call
         });
 
@@ -166,22 +169,21 @@ const LogisticsManagerDashboard = () => {
             <Card.Body>
               {loading ? (
                 <p>Loading inventory...</p>
-              ) : inventory.filter(item => item.quantity < item.reorderLevel).length === 0 ? (
+              ) : inventory.length === 0 ? (
                 <p>No low stock items found.</p>
               ) : (
                 <>
                   <ul className="list-group">
                     {inventory
-                      .filter(item => item.quantity < item.reorderLevel)
                       .slice(0, 4)
                       .map(item => (
                         <li key={item.inventoryId} className="list-group-item d-flex justify-content-between align-items-center">
-                          {item.name}
-                          <span className="badge bg-danger rounded-pill">{item.quantity} / {item.reorderLevel}</span>
+                          {item.itemName}
+                          <span className="badge bg-danger rounded-pill">{item.quantity} / {item.reorderPoint}</span>
                         </li>
                       ))}
                   </ul>
-                  {inventory.filter(item => item.quantity < item.reorderLevel).length > 4 && (
+                  {inventory.length > 4 && (
                     <div className="text-center mt-3">
                       <Button as={Link} to="/inventory/reorder" variant="outline-danger" size="sm">View All Low Stock</Button>
                     </div>
@@ -18,6 +18,7 @@ const InventoryDetail = () => {
   const [destinationWarehouseId, setDestinationWarehouseId] = useState('');
   const [transferError, setTransferError] = useState('');
   const [transferring, setTransferring] = useState(false);
+  const [transferNotice, setTransferNotice] = useState('');
 
   // Quantity update modal state
   const [showQuantityModal, setShowQuantityModal] = useState(false);
@@ -56,6 +57,18 @@ const InventoryDetail = () => {
     }
   };
 
+  // Polls for up to about 30 seconds; returns null if the transfer has not settled by then
+  const waitForTransfer = async (transferId) => {
+    for (let attempt = 0; attempt < 60; attempt++) {
+      const response = await axios.get(`http://localhost:8080/api/inventory/transfers/${transferId}`, { headers: authHeader() });
+      if (response.data.status === 'COMPLETED' || response.data.status === 'CANCELLED') {
+        return response.data;
+      }
+      await new Promise(resolve => setTimeout(resolve, 500));
+    }
+    return null;
+  };
+
   const handleTransferSubmit = async (e) => {
     e.preventDefault();
     setTransferError('');
@@ -82,7 +95,7 @@ const InventoryDetail = () => {
     
     try {
       setTransferring(true);
-      await axios.post(
+      const response = await axios.post(
         'http://localhost:8080/api/inventory/transfer',
         {
           sourceInventoryId: inventory.inventoryId,
@@ -92,6 +105,21 @@ const InventoryDetail = () => {
         { headers: authHeader() }
       );
       
+      // The transfer is executed in the background; poll until it settles
+      const transfer = await waitForTransfer(response.data.transferId);
+      if (!transfer) {
+        setTransferNotice(`Transfer #${response.data.transferId} is still being processed. Refresh this page later to see the updated quantity.`);
+        setShowTransferModal(false);
+        setTransferring(false);
+        return;
+      }
+      if (transfer.status === 'CANCELLED') {
+        setTransferError(transfer.failureReason || 'The transfer could not be completed.');
+        setTransferring(false);
+        fetchInventoryData();
+        return;
+      }
+      
       setShowTransferModal(false);
       fetchInventoryData(); // Refresh data
       setTransferring(false);
@@ -162,6 +190,9 @@ const InventoryDetail = () => {
   return (
     <Container className="mt-4">
       {error && <Alert variant="danger">{error}</Alert>}
+      {transferNotice && (
+        <Alert variant="info" dismissible onClose={() => setTransferNotice('')}>{transferNotice}</Alert>
+      )}
       
       <Row className="mb-4">
         <Col>
@@ -22,7 +22,8 @@ const InventoryForm = () => {
     reorderPoint: '',
     reorderQuantity: '',
     unitPrice: '',
-    warehouseId: preselectedWarehouseId || ''
+    warehouseId: preselectedWarehouseId || '',
+    version: null
   });
   const [warehouses, setWarehouses] = useState([]);
   const [loading, setLoading] = useState(false);
@@ -56,7 +57,9 @@ const InventoryForm = () => {
           reorderPoint: inventory.reorderPoint,
           reorderQuantity: inventory.reorderQuantity,
           unitPrice: inventory.unitPrice,
-          warehouseId: inventory.warehouseId
+          warehouseId: inventory.warehouseId,
+          // Sent back on save; the server refuses the update if the item changed in between
+          version: inventory.version
         });
         setLoading(false);
       } catch (err) {
@@ -116,7 +119,9 @@ const InventoryForm = () => {
       
       navigate('/inventory');
     } catch (err) {
-      const errorMessage = err.response?.data?.message || 'An error occurred. Please try again.';
+      const errorMessage = err.response?.status === 409
+        ? 'This item was changed by someone else. Reload it to see the latest values, then save again.'
+        : err.response?.data?.message || 'An error occurred. Please try again.';
       setError(errorMessage);
       setSubmitting(false);
       console.error('Error saving inventory:', err);
@@ -2,6 +2,7 @@ package com.logistics.logistics.controller;
 
 import com.logistics.logistics.dto.AuthenticationRequest;
 import com.logistics.logistics.dto.AuthenticationResponse;
+import com.logistics.logistics.dto.RefreshTokenRequest;
 import com.logistics.logistics.dto.RegistrationRequest;
 import com.logistics.logistics.service.AuthService;
 import lombok.RequiredArgsConstructor;
@@ -44,6 +45,30 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthenticationResponse> refresh(@RequestBody RefreshTokenRequest request) {
+        logger.info("Token refresh request received");
+        try {
+            return ResponseEntity.ok(authService.refresh(request));
+        } catch (Exception e) {
+            logger.error("Token refresh failed, error: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                       @RequestBody(required = false) RefreshTokenRequest request) {
+        logger.info("Logout request received");
+        try {
+            authService.logout(authorization, request);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            logger.error("Logout failed, error: {}", e.getMessage());
+            throw e;
+        }
+    }
+
     @GetMapping("/test")
     public ResponseEntity<String> testAuth() {
         logger.info("Auth test endpoint called");
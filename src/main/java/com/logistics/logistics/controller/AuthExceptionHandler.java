@@ -2,6 +2,9 @@ package com.logistics.logistics.controller;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -54,6 +57,32 @@ public class AuthExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
     
+    @ExceptionHandler(value = {ConcurrencyFailureException.class})
+    public ResponseEntity<Object> handleConcurrencyFailure(ConcurrencyFailureException ex, WebRequest request) {
+        logger.error("Concurrency failure: {}", ex.getMessage());
+        
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", "Conflict");
+        body.put("message", "The resource was modified concurrently, please retry");
+        
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+    
+    @ExceptionHandler(value = {TaskRejectedException.class})
+    public ResponseEntity<Object> handleTaskRejected(TaskRejectedException ex, WebRequest request) {
+        logger.warn("Task rejected: {}", ex.getMessage());
+        
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", "Service Unavailable");
+        body.put("message", ex.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+    
     @ExceptionHandler(value = {Exception.class})
     public ResponseEntity<Object> handleGenericException(Exception ex, WebRequest request) {
         logger.error("Unhandled exception: {}", ex.getMessage(), ex);
@@ -1,16 +1,42 @@
 package com.logistics.logistics.controller;
 
+import com.logistics.logistics.dto.BulkTransferResponse;
+import com.logistics.logistics.dto.InventoryChangesResponse;
+import com.logistics.logistics.dto.InventoryHistoryResponse;
+import com.logistics.logistics.dto.InventoryImportResponse;
+import com.logistics.logistics.dto.InventoryPageResponse;
+import com.logistics.logistics.dto.InventoryQuantityAtResponse;
 import com.logistics.logistics.dto.InventoryRequest;
 import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.dto.QuantityAdjustment;
+import com.logistics.logistics.dto.QuantityBatchResponse;
+import com.logistics.logistics.dto.TransferLine;
+import com.logistics.logistics.dto.TransferResponse;
+import com.logistics.logistics.service.CollectionVersions;
+import com.logistics.logistics.service.InventoryBatchService;
+import com.logistics.logistics.service.InventoryImportService;
+import com.logistics.logistics.service.InventoryLedger;
 import com.logistics.logistics.service.InventoryService;
+import com.logistics.logistics.service.InventorySyncService;
+import com.logistics.logistics.service.QuantityWriteBehind;
+import com.logistics.logistics.service.TransferPipeline;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,10 +47,84 @@ import java.util.Map;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final InventorySyncService inventorySyncService;
+    private final InventoryBatchService inventoryBatchService;
+    private final InventoryImportService inventoryImportService;
+    private final InventoryLedger inventoryLedger;
+    private final TransferPipeline transferPipeline;
+    private final QuantityWriteBehind quantityWriteBehind;
+    private final CollectionVersions collectionVersions;
 
     @GetMapping
-    public ResponseEntity<List<InventoryResponse>> getAllInventory() {
-        return ResponseEntity.ok(inventoryService.getAllInventory());
+    public ResponseEntity<List<InventoryResponse>> getAllInventory(WebRequest webRequest) {
+        // Read the version before the rows so a concurrent change can only make the tag older, never newer
+        String etag = collectionVersions.inventoryEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(inventoryService.getAllInventory());
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<InventoryPageResponse> getInventoryPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok(inventoryService.getInventoryPage(cursor, size, sort));
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<InventoryChangesResponse> getInventoryChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(inventorySyncService.getChangesSince(since, limit));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<InventoryResponse>> searchInventory(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer warehouseId,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(inventoryService.searchInventory(query, warehouseId, limit));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LOGISTICS_MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportInventory(
+            @RequestParam(defaultValue = InventoryService.EXPORT_FORMAT_NDJSON) String format) {
+        String normalizedFormat = format.toLowerCase();
+        MediaType mediaType;
+        if (InventoryService.EXPORT_FORMAT_CSV.equals(normalizedFormat)) {
+            mediaType = new MediaType("text", "csv");
+        } else if (InventoryService.EXPORT_FORMAT_NDJSON.equals(normalizedFormat)) {
+            mediaType = MediaType.APPLICATION_NDJSON;
+        } else {
+            throw new IllegalArgumentException("Invalid export format. Valid values are: ndjson, csv");
+        }
+        
+        StreamingResponseBody body = outputStream -> inventoryService.exportInventory(outputStream, normalizedFormat);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"inventory." + normalizedFormat + "\"")
+                .body(body);
+    }
+
+    // The file is the raw request body (text/csv or application/x-ndjson) and is read as it arrives
+    @PostMapping("/import")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LOGISTICS_MANAGER')")
+    public ResponseEntity<InventoryImportResponse> importInventory(
+            InputStream body,
+            @RequestParam(defaultValue = InventoryService.EXPORT_FORMAT_NDJSON) String format,
+            @RequestParam(required = false) String mode) throws IOException {
+        String normalizedFormat = format.toLowerCase();
+        if (!InventoryService.EXPORT_FORMAT_CSV.equals(normalizedFormat)
+                && !InventoryService.EXPORT_FORMAT_NDJSON.equals(normalizedFormat)) {
+            throw new IllegalArgumentException("Invalid import format. Valid values are: ndjson, csv");
+        }
+        return ResponseEntity.ok(inventoryImportService.importInventory(body, normalizedFormat, mode));
     }
 
     @GetMapping("/{id}")
@@ -32,9 +132,45 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryService.getInventoryById(id));
     }
 
+    // Also answers for deleted items, whose movements stay in the ledger
+    @GetMapping("/{id}/movements")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LOGISTICS_MANAGER')")
+    public ResponseEntity<InventoryHistoryResponse> getInventoryMovements(
+            @PathVariable Integer id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(inventoryLedger.getMovements(id, after, limit));
+    }
+
+    @GetMapping("/{id}/quantity-at")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LOGISTICS_MANAGER')")
+    public ResponseEntity<InventoryQuantityAtResponse> getInventoryQuantityAt(
+            @PathVariable Integer id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(inventoryLedger.getQuantityAt(id, at));
+    }
+
     @GetMapping("/warehouse/{warehouseId}")
-    public ResponseEntity<List<InventoryResponse>> getInventoryByWarehouse(@PathVariable Integer warehouseId) {
-        return ResponseEntity.ok(inventoryService.getInventoryByWarehouse(warehouseId));
+    public ResponseEntity<List<InventoryResponse>> getInventoryByWarehouse(
+            @PathVariable Integer warehouseId,
+            WebRequest webRequest) {
+        String etag = collectionVersions.inventoryEtag(warehouseId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(inventoryService.getInventoryByWarehouse(warehouseId));
+    }
+
+    @GetMapping("/warehouse/{warehouseId}/page")
+    public ResponseEntity<InventoryPageResponse> getInventoryPageByWarehouse(
+            @PathVariable Integer warehouseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok(inventoryService.getInventoryPageByWarehouse(warehouseId, cursor, size, sort));
     }
 
     @PostMapping
@@ -50,17 +186,11 @@ public class InventoryController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateInventory(
+    // A missing version is answered with 400 and a stale one with 409 by AuthExceptionHandler
+    public ResponseEntity<InventoryResponse> updateInventory(
             @PathVariable Integer id,
             @RequestBody InventoryRequest inventoryRequest) {
-        try {
-            InventoryResponse updatedInventory = inventoryService.updateInventory(id, inventoryRequest);
-            return ResponseEntity.ok(updatedInventory);
-        } catch (Exception e) {
-            Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
-        }
+        return ResponseEntity.ok(inventoryService.updateInventory(id, inventoryRequest));
     }
 
     @DeleteMapping("/{id}")
@@ -79,9 +209,25 @@ public class InventoryController {
         if (quantityChange == null) {
             return ResponseEntity.badRequest().build();
         }
+        if (quantityWriteBehind.isEnabled()) {
+            // Recorded against the projected quantity; written to the database on the next flush
+            return ResponseEntity.accepted().body(quantityWriteBehind.record(id, quantityChange));
+        }
         return ResponseEntity.ok(inventoryService.updateInventoryQuantity(id, quantityChange));
     }
 
+    @PostMapping("/quantity/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LOGISTICS_MANAGER', 'WAREHOUSE_STAFF')")
+    public ResponseEntity<QuantityBatchResponse> adjustQuantities(
+            @RequestBody List<QuantityAdjustment> adjustments,
+            @RequestParam(required = false) String mode) {
+        QuantityBatchResponse response = inventoryBatchService.adjustQuantities(adjustments, mode);
+        if (!response.getCommitted()) {
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/reorder")
     @PreAuthorize("hasAnyRole('ADMIN', 'LOGISTICS_MANAGER')")
     public ResponseEntity<List<InventoryResponse>> getItemsBelowReorderPoint() {
@@ -94,22 +240,39 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryService.getItemsBelowReorderPointByWarehouse(warehouseId));
     }
 
+    @PostMapping("/transfer/bulk")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LOGISTICS_MANAGER')")
+    public ResponseEntity<BulkTransferResponse> transferInventoryBulk(
+            @RequestBody List<TransferLine> lines,
+            Authentication authentication) {
+        return ResponseEntity.ok(inventoryBatchService.transferInventoryBulk(lines, authentication.getName()));
+    }
+
     @PostMapping("/transfer")
     @PreAuthorize("hasAnyRole('ADMIN', 'LOGISTICS_MANAGER', 'WAREHOUSE_STAFF')")
-    public ResponseEntity<Void> transferInventory(@RequestBody Map<String, Integer> request) {
+    public ResponseEntity<TransferResponse> transferInventory(@RequestBody Map<String, Integer> request,
+                                                              Authentication authentication) {
         Integer sourceInventoryId = request.get("sourceInventoryId");
         Integer destinationWarehouseId = request.get("destinationWarehouseId");
         Integer quantity = request.get("quantity");
         
-        // Get current user ID from security context
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        Integer userId = Integer.parseInt(authentication.getName());
-        
         if (sourceInventoryId == null || destinationWarehouseId == null || quantity == null) {
             return ResponseEntity.badRequest().build();
         }
         
-        inventoryService.transferInventory(sourceInventoryId, destinationWarehouseId, quantity, userId);
-        return ResponseEntity.ok().build();
+        // Only records the transfer; poll GET /transfers/{id} for the outcome
+        TransferResponse pending = transferPipeline.submit(sourceInventoryId, destinationWarehouseId, quantity,
+                authentication.getName());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/inventory/transfers/" + pending.getTransferId()))
+                .body(pending);
+    }
+    
+    @GetMapping("/transfers/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LOGISTICS_MANAGER', 'WAREHOUSE_STAFF')")
+    public ResponseEntity<TransferResponse> getTransfer(@PathVariable Integer id) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(inventoryService.getTransferById(id));
     }
 }
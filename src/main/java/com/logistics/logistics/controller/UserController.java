@@ -3,6 +3,7 @@ package com.logistics.logistics.controller;
 import com.logistics.logistics.model.User;
 import com.logistics.logistics.model.UserRole;
 import com.logistics.logistics.repository.UserRepository;
+import com.logistics.logistics.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +11,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -25,6 +28,7 @@ import java.util.stream.Collectors;
 public class UserController {
 
     private final UserRepository userRepository;
+    private final AuthService authService;
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
     @GetMapping("/managers")
@@ -99,6 +103,15 @@ public class UserController {
         }
     }
     
+    // Signs the user out everywhere, e.g. when an account is disabled; their current tokens stop working at once
+    @PostMapping("/{username}/revoke-tokens")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> revokeTokens(@PathVariable String username) {
+        logger.info("Revoking all tokens of user {}", username);
+        authService.revokeAllTokens(username);
+        return ResponseEntity.noContent().build();
+    }
+    
     /**
      * Converts a User entity to a DTO map with only the necessary fields
      */
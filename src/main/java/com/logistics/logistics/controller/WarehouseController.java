@@ -2,12 +2,16 @@ package com.logistics.logistics.controller;
 
 import com.logistics.logistics.dto.WarehouseRequest;
 import com.logistics.logistics.dto.WarehouseResponse;
+import com.logistics.logistics.dto.WarehouseStatsResponse;
+import com.logistics.logistics.service.CollectionVersions;
 import com.logistics.logistics.service.WarehouseService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -19,10 +23,24 @@ import java.util.Map;
 public class WarehouseController {
 
     private final WarehouseService warehouseService;
+    private final CollectionVersions collectionVersions;
 
     @GetMapping
-    public ResponseEntity<List<WarehouseResponse>> getAllWarehouses() {
-        return ResponseEntity.ok(warehouseService.getAllWarehouses());
+    public ResponseEntity<List<WarehouseResponse>> getAllWarehouses(WebRequest webRequest) {
+        // Read the version before the rows so a concurrent change can only make the tag older, never newer
+        String etag = collectionVersions.warehousesEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(warehouseService.getAllWarehouses());
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<WarehouseStatsResponse> getFleetStats() {
+        return ResponseEntity.ok(warehouseService.getFleetStats());
     }
 
     @GetMapping("/{id}")
@@ -30,6 +48,11 @@ public class WarehouseController {
         return ResponseEntity.ok(warehouseService.getWarehouseById(id));
     }
 
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<WarehouseStatsResponse> getWarehouseStats(@PathVariable Integer id) {
+        return ResponseEntity.ok(warehouseService.getWarehouseStats(id));
+    }
+
     @PostMapping
     public ResponseEntity<?> createWarehouse(@RequestBody WarehouseRequest warehouseRequest) {
         try {
@@ -0,0 +1,18 @@
+package com.logistics.logistics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkTransferResponse {
+    private Integer lineCount;
+    private Integer totalQuantity;
+    // Final state of every source and destination row the transfer touched
+    private List<InventoryResponse> inventory;
+}
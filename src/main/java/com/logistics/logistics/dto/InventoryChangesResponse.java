@@ -0,0 +1,20 @@
+package com.logistics.logistics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryChangesResponse {
+    private List<InventoryResponse> upserts;
+    private List<InventoryTombstone> deletions;
+    // Pass back as ?since= on the next call
+    private String watermark;
+    // True when the caller should ask again immediately with the new watermark
+    private Boolean hasMore;
+}
@@ -0,0 +1,19 @@
+package com.logistics.logistics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryHistoryResponse {
+    private Integer inventoryId;
+    private List<InventoryMovementResponse> movements;
+    // Pass back as ?after= to read the next page
+    private Long nextAfter;
+    private Boolean hasMore;
+}
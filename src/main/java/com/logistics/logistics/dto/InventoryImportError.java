@@ -0,0 +1,17 @@
+package com.logistics.logistics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryImportError {
+    // 1-based position of the data row in the uploaded file, not counting a CSV header
+    private Long row;
+    private String sku;
+    private String message;
+}
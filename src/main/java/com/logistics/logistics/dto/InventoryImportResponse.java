@@ -0,0 +1,23 @@
+package com.logistics.logistics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryImportResponse {
+    private String format;
+    private String mode;
+    private Long totalRows;
+    private Long inserted;
+    private Long updated;
+    private Long failed;
+    // Only the first inventory.import.max-errors row errors are kept
+    private List<InventoryImportError> errors;
+    private Boolean errorsTruncated;
+}
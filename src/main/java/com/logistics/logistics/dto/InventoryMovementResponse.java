@@ -0,0 +1,22 @@
+package com.logistics.logistics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryMovementResponse {
+    private Long sequence;
+    private Integer inventoryId;
+    private Integer warehouseId;
+    private String sku;
+    private String movementType;
+    private Integer quantityDelta;
+    private String recordedBy;
+    private LocalDateTime recordedAt;
+}
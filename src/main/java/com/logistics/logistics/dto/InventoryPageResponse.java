@@ -0,0 +1,20 @@
+package com.logistics.logistics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryPageResponse {
+    private List<InventoryResponse> items;
+    private String sort;
+    private Integer size;
+    private Boolean hasMore;
+    // Opaque continuation token, null on the last page
+    private String nextCursor;
+}
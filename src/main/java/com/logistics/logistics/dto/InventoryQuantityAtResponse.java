@@ -0,0 +1,22 @@
+package com.logistics.logistics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryQuantityAtResponse {
+    private Integer inventoryId;
+    private LocalDateTime at;
+    private Integer quantity;
+    // Last ledger movement included, null if the row had no movements yet
+    private Long sequence;
+    // Snapshot the quantity was rebuilt from, null if it was replayed from the start of the ledger
+    private Long snapshotSequence;
+    private Long replayedMovements;
+}
@@ -19,4 +19,6 @@ public class InventoryRequest {
     private Integer reorderQuantity;
     private BigDecimal unitPrice;
     private Integer warehouseId;
+    // Required on update: the version the client last read, so a stale write is refused
+    private Long version;
 }
@@ -8,7 +8,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class InventoryResponse {
@@ -24,4 +24,5 @@ public class InventoryResponse {
     private String warehouseName;
     private LocalDateTime updatedAt;
     private Boolean needsRestock;
+    private Long version;
 }
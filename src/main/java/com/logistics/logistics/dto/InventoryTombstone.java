@@ -0,0 +1,18 @@
+package com.logistics.logistics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryTombstone {
+    private Integer inventoryId;
+    private Integer warehouseId;
+    private String sku;
+    private LocalDateTime deletedAt;
+}
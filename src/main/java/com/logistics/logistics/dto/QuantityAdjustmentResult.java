@@ -0,0 +1,27 @@
+package com.logistics.logistics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuantityAdjustmentResult {
+    private Integer inventoryId;
+    private Integer delta;
+    private Status status;
+    // Quantity after the whole batch was applied; null unless the adjustment was applied
+    private Integer quantity;
+    private String message;
+    
+    public enum Status {
+        APPLIED,
+        NOT_FOUND,
+        INSUFFICIENT_STOCK,
+        INVALID,
+        ROLLED_BACK
+    }
+}
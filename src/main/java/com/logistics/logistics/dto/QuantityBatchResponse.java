@@ -0,0 +1,21 @@
+package com.logistics.logistics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuantityBatchResponse {
+    private String mode;
+    // False when an atomic batch was rolled back because one of its adjustments failed
+    private Boolean committed;
+    private Integer applied;
+    private Integer failed;
+    // Same order as the submitted adjustments
+    private List<QuantityAdjustmentResult> results;
+}
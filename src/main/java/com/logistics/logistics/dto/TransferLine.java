@@ -0,0 +1,16 @@
+package com.logistics.logistics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferLine {
+    private Integer sourceInventoryId;
+    private Integer destinationWarehouseId;
+    private Integer quantity;
+}
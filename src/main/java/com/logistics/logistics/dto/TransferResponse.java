@@ -0,0 +1,24 @@
+package com.logistics.logistics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferResponse {
+    private Integer transferId;
+    private Integer sourceInventoryId;
+    private Integer sourceWarehouseId;
+    private Integer destinationWarehouseId;
+    private Integer quantity;
+    private String status;
+    // Why a transfer ended up CANCELLED, null otherwise
+    private String failureReason;
+    private LocalDateTime initiatedAt;
+    private LocalDateTime completedAt;
+}
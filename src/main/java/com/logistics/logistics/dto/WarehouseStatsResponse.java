@@ -0,0 +1,25 @@
+package com.logistics.logistics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WarehouseStatsResponse {
+    // Null for the fleet-wide totals
+    private Integer warehouseId;
+    private String warehouseName;
+    private Integer warehouseCount;
+    private Long skuCount;
+    private Long totalUnits;
+    private BigDecimal stockValue;
+    private Long restockCount;
+    private BigDecimal capacity;
+    // Total units as a percentage of capacity
+    private BigDecimal capacityUtilization;
+}
@@ -0,0 +1,52 @@
+package com.logistics.logistics.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a mutating request sent with an Idempotency-Key, replayed when the same key is sent again.
+ * A row without a status code is a reservation for a request that is still being processed.
+ */
+@Entity
+@Table(name = "IdempotencyKeys",
+        indexes = {
+                @Index(name = "idx_idempotency_expires_at", columnList = "expires_at")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    
+    // The client's key prefixed with the username, so keys of different users never collide
+    @Id
+    @Column(name = "idempotency_key", length = 320)
+    private String idempotencyKey;
+    
+    // SHA-256 of method, path, query and body, to reject a key reused for a different request
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    
+    @Column(name = "status_code")
+    private Integer statusCode;
+    
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+    
+    @Column(name = "location", length = 255)
+    private String location;
+    
+    @Lob
+    @Column(name = "response_body", length = 16777215)
+    private byte[] responseBody;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -9,7 +9,17 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "Inventory")
+@Table(name = "Inventory",
+        uniqueConstraints = {
+                // Leading warehouse_id also serves the warehouse foreign key and per-warehouse listings
+                @UniqueConstraint(name = "uk_inventory_warehouse_sku", columnNames = {"warehouse_id", "sku"})
+        },
+        indexes = {
+                @Index(name = "idx_inventory_item_name", columnList = "itemName"),
+                @Index(name = "idx_inventory_sku", columnList = "sku"),
+                @Index(name = "idx_inventory_warehouse_item_name", columnList = "warehouse_id, itemName"),
+                @Index(name = "idx_inventory_updated_at", columnList = "updated_at")
+        })
 @Data
 @Builder
 @NoArgsConstructor
@@ -52,6 +62,11 @@ public class Inventory {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Bumped on every write, including the bulk quantity UPDATE, so stale writers fail instead of overwriting
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
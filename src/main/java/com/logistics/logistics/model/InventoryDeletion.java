@@ -0,0 +1,45 @@
+package com.logistics.logistics.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Tombstone for a hard-deleted inventory row, kept so sync clients can learn about deletions.
+ */
+@Entity
+@Table(name = "InventoryDeletions",
+        indexes = {
+                @Index(name = "idx_inventory_deletion_deleted_at", columnList = "deleted_at")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryDeletion {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "deletion_id")
+    private Long deletionId;
+    
+    @Column(name = "inventory_id", nullable = false)
+    private Integer inventoryId;
+    
+    @Column(name = "warehouse_id")
+    private Integer warehouseId;
+    
+    @Column(nullable = false)
+    private String sku;
+    
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        deletedAt = LocalDateTime.now();
+    }
+}
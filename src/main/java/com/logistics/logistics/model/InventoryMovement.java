@@ -0,0 +1,64 @@
+package com.logistics.logistics.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the append-only stock ledger: the quantity delta a single write applied to one inventory
+ * row. The movement id is the ledger's sequence number. Rows are never updated or deleted, and the
+ * inventory id is kept without a foreign key so history outlives deleted items.
+ */
+@Entity
+@Table(name = "InventoryMovements",
+        indexes = {
+                @Index(name = "idx_movement_inventory_sequence", columnList = "inventory_id, movement_id")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "movement_id")
+    private Long movementId;
+
+    @Column(name = "inventory_id", nullable = false)
+    private Integer inventoryId;
+
+    @Column(name = "warehouse_id", nullable = false)
+    private Integer warehouseId;
+
+    @Column(nullable = false)
+    private String sku;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false, length = 20)
+    private MovementType movementType;
+
+    @Column(name = "quantity_delta", nullable = false)
+    private Integer quantityDelta;
+
+    // Null when the write did not come from an authenticated request, e.g. a transfer worker
+    @Column(name = "recorded_by", length = 50)
+    private String recordedBy;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    public enum MovementType {
+        // Stock that existed before the ledger started recording it
+        OPENING,
+        CREATE,
+        UPDATE,
+        ADJUSTMENT,
+        TRANSFER,
+        IMPORT,
+        DELETE
+    }
+}
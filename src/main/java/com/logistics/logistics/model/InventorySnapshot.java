@@ -0,0 +1,42 @@
+package com.logistics.logistics.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Quantity of one inventory row after every ledger movement up to and including {@code movementId}, so
+ * rebuilding a past quantity only has to replay the movements after it.
+ */
+@Entity
+@Table(name = "InventorySnapshots",
+        indexes = {
+                @Index(name = "idx_snapshot_inventory_sequence", columnList = "inventory_id, movement_id"),
+                @Index(name = "idx_snapshot_sequence", columnList = "movement_id")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventorySnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "snapshot_id")
+    private Long snapshotId;
+
+    @Column(name = "inventory_id", nullable = false)
+    private Integer inventoryId;
+
+    @Column(name = "movement_id", nullable = false)
+    private Long movementId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
@@ -8,7 +8,13 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "InventoryTransfers")
+@Table(name = "InventoryTransfers",
+        indexes = {
+                @Index(name = "idx_transfer_source_status", columnList = "source_warehouse_id, status"),
+                @Index(name = "idx_transfer_destination_status", columnList = "destination_warehouse_id, status"),
+                @Index(name = "idx_transfer_status_initiated", columnList = "status, initiated_at"),
+                @Index(name = "idx_transfer_inventory", columnList = "inventory_id")
+        })
 @Data
 @Builder
 @NoArgsConstructor
@@ -49,6 +55,13 @@ public class InventoryTransfer {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
     
+    @Column(name = "failure_reason")
+    private String failureReason;
+    
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         initiatedAt = LocalDateTime.now();
@@ -0,0 +1,51 @@
+package com.logistics.logistics.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * A refresh token handed out at login, registration or refresh. Only the token's SHA-256 is stored.
+ * Every refresh marks the presented token used and issues a successor in the same family, so a used
+ * token presented again means it was copied, and the whole family is revoked.
+ */
+@Entity
+@Table(name = "RefreshTokens",
+        indexes = {
+                @Index(name = "idx_refresh_token_family", columnList = "family_id"),
+                @Index(name = "idx_refresh_token_username", columnList = "username"),
+                @Index(name = "idx_refresh_token_expires_at", columnList = "expires_at")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+    
+    @Id
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
+    
+    // Shared by a login's token and all tokens rotated from it
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+    
+    @Column(nullable = false, length = 50)
+    private String username;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    // Set when the token has been exchanged for its successor
+    @Column(name = "used_at")
+    private LocalDateTime usedAt;
+    
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+}
@@ -0,0 +1,52 @@
+package com.logistics.logistics.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * A revoked access token (by its jti) or a cutoff for every access token of a user issued before
+ * {@code notBefore}. A row is only needed until every token it could match has expired.
+ */
+@Entity
+@Table(name = "TokenRevocations",
+        indexes = {
+                @Index(name = "idx_token_revocation_expires_at", columnList = "expires_at")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "revocation_id")
+    private Long revocationId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Kind kind;
+    
+    // The jti for TOKEN, the username for USER
+    @Column(nullable = false, length = 50)
+    private String subject;
+    
+    // USER only: tokens issued before this instant (whole seconds, like the iat claim) are rejected
+    @Column(name = "not_before")
+    private LocalDateTime notBefore;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+    
+    public enum Kind {
+        TOKEN,
+        USER
+    }
+}
@@ -0,0 +1,29 @@
+package com.logistics.logistics.repository;
+
+import com.logistics.logistics.model.InventoryDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InventoryDeletionRepository extends JpaRepository<InventoryDeletion, Long> {
+    
+    @Query("SELECT d FROM InventoryDeletion d WHERE d.deletedAt > :since " +
+           "OR (d.deletedAt = :since AND d.deletionId > :afterId) " +
+           "ORDER BY d.deletedAt, d.deletionId")
+    List<InventoryDeletion> findDeletedAfter(@Param("since") LocalDateTime since,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM InventoryDeletion d WHERE d.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
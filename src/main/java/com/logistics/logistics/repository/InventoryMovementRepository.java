@@ -0,0 +1,40 @@
+package com.logistics.logistics.repository;
+
+import com.logistics.logistics.model.InventoryMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+    
+    List<InventoryMovement> findByInventoryIdAndMovementIdGreaterThanOrderByMovementIdAsc(Integer inventoryId,
+                                                                                          Long afterMovementId,
+                                                                                          Pageable pageable);
+    
+    @Query("SELECT MAX(m.movementId) FROM InventoryMovement m " +
+           "WHERE m.inventoryId = :inventoryId AND m.recordedAt <= :at")
+    Long findLastSequenceAt(@Param("inventoryId") Integer inventoryId, @Param("at") LocalDateTime at);
+    
+    // Net delta and movement count of one row's movements in (fromSequence, toSequence]
+    @Query("SELECT COALESCE(SUM(m.quantityDelta), 0), COUNT(m) FROM InventoryMovement m " +
+           "WHERE m.inventoryId = :inventoryId AND m.movementId > :fromSequence AND m.movementId <= :toSequence")
+    List<Object[]> sumDeltas(@Param("inventoryId") Integer inventoryId,
+                             @Param("fromSequence") Long fromSequence,
+                             @Param("toSequence") Long toSequence);
+    
+    // Rows with a movement after afterSequence; a primary key range scan
+    @Query("SELECT DISTINCT m.inventoryId FROM InventoryMovement m WHERE m.movementId > :afterSequence")
+    List<Integer> findInventoryIdsMovedAfter(@Param("afterSequence") Long afterSequence);
+    
+    // [inventoryId, newest movementId] per row
+    @Query("SELECT m.inventoryId, MAX(m.movementId) FROM InventoryMovement m " +
+           "WHERE m.inventoryId IN :inventoryIds GROUP BY m.inventoryId")
+    List<Object[]> findLastSequences(@Param("inventoryIds") Collection<Integer> inventoryIds);
+}
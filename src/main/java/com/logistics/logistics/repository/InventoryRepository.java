@@ -1,13 +1,26 @@
 package com.logistics.logistics.repository;
 
+import com.logistics.logistics.dto.InventoryResponse;
 import com.logistics.logistics.model.Inventory;
 import com.logistics.logistics.model.Warehouse;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Integer> {
@@ -22,4 +35,150 @@ public interface InventoryRepository extends JpaRepository<Inventory, Integer> {
     
     @Query("SELECT i FROM Inventory i WHERE i.warehouse = ?1 AND i.quantity <= i.reorderPoint")
     List<Inventory> findItemsBelowReorderPointByWarehouse(Warehouse warehouse);
+    
+    // Read-only projections: build InventoryResponse straight from the result set, joining only the
+    // warehouse columns we return, so no entities (or their eager manager) are loaded or tracked
+    String INVENTORY_RESPONSE_PROJECTION = "SELECT new com.logistics.logistics.dto.InventoryResponse(" +
+            "i.inventoryId, i.itemName, i.description, i.sku, i.quantity, i.reorderPoint, i.reorderQuantity, " +
+            "i.unitPrice, w.warehouseId, w.name, i.updatedAt, " +
+            "CASE WHEN i.quantity <= i.reorderPoint THEN true ELSE false END, i.version) " +
+            "FROM Inventory i JOIN i.warehouse w ";
+    
+    @Query(INVENTORY_RESPONSE_PROJECTION)
+    List<InventoryResponse> findAllInventoryResponses();
+    
+    @Query(INVENTORY_RESPONSE_PROJECTION + "WHERE w.warehouseId = :warehouseId")
+    List<InventoryResponse> findInventoryResponsesByWarehouseId(@Param("warehouseId") Integer warehouseId);
+    
+    @Query(INVENTORY_RESPONSE_PROJECTION + "WHERE i.inventoryId IN :ids")
+    List<InventoryResponse> findInventoryResponsesByIds(@Param("ids") Collection<Integer> ids);
+    
+    // Candidates for an import chunk via idx_inventory_sku; callers match the (warehouse, sku) pairs in memory
+    @Query(INVENTORY_RESPONSE_PROJECTION + "WHERE i.sku IN :skus")
+    List<InventoryResponse> findInventoryResponsesBySkus(@Param("skus") Collection<String> skus);
+    
+    // [inventoryId, version] of every row, so in-memory indexes can tell stale change events apart
+    @Query("SELECT i.inventoryId, i.version FROM Inventory i")
+    List<Object[]> findAllVersions();
+    
+    @Query("SELECT i.inventoryId FROM Inventory i WHERE i.inventoryId IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+    
+    @Query(INVENTORY_RESPONSE_PROJECTION + "WHERE i.quantity <= i.reorderPoint")
+    List<InventoryResponse> findInventoryResponsesBelowReorderPoint();
+    
+    @Query(INVENTORY_RESPONSE_PROJECTION + "WHERE w.warehouseId = :warehouseId AND i.quantity <= i.reorderPoint")
+    List<InventoryResponse> findInventoryResponsesBelowReorderPointByWarehouseId(@Param("warehouseId") Integer warehouseId);
+    
+    // Transfers lock rows with SELECT ... FOR UPDATE in (warehouse_id, sku) order, the order of
+    // uk_inventory_warehouse_sku, so single and bulk transfers never lock the same rows in opposite orders
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.sku = :sku AND i.warehouse.warehouseId IN :warehouseIds " +
+           "ORDER BY i.warehouse.warehouseId")
+    List<Inventory> lockBySkuAndWarehouseIds(@Param("sku") String sku,
+                                             @Param("warehouseIds") Collection<Integer> warehouseIds);
+    
+    // Covers every (sku, warehouse) pair of a bulk transfer; may also lock a few unrelated pairs of the cross product
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.sku IN :skus AND i.warehouse.warehouseId IN :warehouseIds " +
+           "ORDER BY i.warehouse.warehouseId, i.sku")
+    List<Inventory> lockBySkusAndWarehouseIds(@Param("skus") Collection<String> skus,
+                                              @Param("warehouseIds") Collection<Integer> warehouseIds);
+    
+    // Shared locks in the same (warehouse_id, sku) order; holds off writers while the ledger checkpoints the rows
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT i FROM Inventory i WHERE i.inventoryId IN :ids ORDER BY i.warehouse.warehouseId, i.sku")
+    List<Inventory> lockForSnapshot(@Param("ids") Collection<Integer> ids);
+    
+    @Query(INVENTORY_RESPONSE_PROJECTION + "WHERE i.inventoryId = :id")
+    Optional<InventoryResponse> findInventoryResponseById(@Param("id") Integer id);
+    
+    // Applies the delta in one statement; returns 0 when the row is missing or would go negative
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity + :delta, i.updatedAt = :updatedAt, " +
+           "i.version = i.version + 1 " +
+           "WHERE i.inventoryId = :id AND i.quantity + :delta >= 0")
+    int adjustQuantity(@Param("id") Integer id,
+                       @Param("delta") int delta,
+                       @Param("updatedAt") LocalDateTime updatedAt);
+    
+    @Query(INVENTORY_RESPONSE_PROJECTION + "WHERE i.updatedAt > :since " +
+           "OR (i.updatedAt = :since AND i.inventoryId > :afterId) " +
+           "ORDER BY i.updatedAt, i.inventoryId")
+    List<InventoryResponse> findInventoryResponsesUpdatedAfter(@Param("since") LocalDateTime since,
+                                                               @Param("afterId") Integer afterId,
+                                                               Pageable pageable);
+    
+    // Fallback for search while the in-memory index is still being built
+    @Query(INVENTORY_RESPONSE_PROJECTION + "WHERE (:warehouseId IS NULL OR w.warehouseId = :warehouseId) " +
+           "AND (LOWER(i.itemName) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(i.sku) LIKE LOWER(CONCAT('%', :query, '%')))")
+    List<InventoryResponse> searchInventoryResponses(@Param("query") String query,
+                                                     @Param("warehouseId") Integer warehouseId,
+                                                     Pageable pageable);
+    
+    // Keyset pagination: the Pageable only carries the limit, the cursor carries the position
+    @Query(INVENTORY_RESPONSE_PROJECTION + "WHERE i.inventoryId > :afterId ORDER BY i.inventoryId")
+    List<InventoryResponse> findPageAfterId(@Param("afterId") Integer afterId, Pageable pageable);
+    
+    @Query(INVENTORY_RESPONSE_PROJECTION + "WHERE w.warehouseId = :warehouseId AND i.inventoryId > :afterId " +
+           "ORDER BY i.inventoryId")
+    List<InventoryResponse> findPageByWarehouseAfterId(@Param("warehouseId") Integer warehouseId,
+                                                       @Param("afterId") Integer afterId,
+                                                       Pageable pageable);
+    
+    @Query(INVENTORY_RESPONSE_PROJECTION + "WHERE :lastKey IS NULL OR i.itemName > :lastKey " +
+           "OR (i.itemName = :lastKey AND i.inventoryId > :afterId) " +
+           "ORDER BY i.itemName, i.inventoryId")
+    List<InventoryResponse> findPageOrderByItemNameAfter(@Param("lastKey") String lastKey,
+                                                         @Param("afterId") Integer afterId,
+                                                         Pageable pageable);
+    
+    @Query(INVENTORY_RESPONSE_PROJECTION + "WHERE w.warehouseId = :warehouseId AND (:lastKey IS NULL " +
+           "OR i.itemName > :lastKey OR (i.itemName = :lastKey AND i.inventoryId > :afterId)) " +
+           "ORDER BY i.itemName, i.inventoryId")
+    List<InventoryResponse> findPageByWarehouseOrderByItemNameAfter(@Param("warehouseId") Integer warehouseId,
+                                                                    @Param("lastKey") String lastKey,
+                                                                    @Param("afterId") Integer afterId,
+                                                                    Pageable pageable);
+    
+    @Query(INVENTORY_RESPONSE_PROJECTION + "WHERE :lastKey IS NULL OR i.sku > :lastKey " +
+           "OR (i.sku = :lastKey AND i.inventoryId > :afterId) " +
+           "ORDER BY i.sku, i.inventoryId")
+    List<InventoryResponse> findPageOrderBySkuAfter(@Param("lastKey") String lastKey,
+                                                    @Param("afterId") Integer afterId,
+                                                    Pageable pageable);
+    
+    @Query(INVENTORY_RESPONSE_PROJECTION + "WHERE w.warehouseId = :warehouseId AND (:lastKey IS NULL " +
+           "OR i.sku > :lastKey OR (i.sku = :lastKey AND i.inventoryId > :afterId)) " +
+           "ORDER BY i.sku, i.inventoryId")
+    List<InventoryResponse> findPageByWarehouseOrderBySkuAfter(@Param("warehouseId") Integer warehouseId,
+                                                               @Param("lastKey") String lastKey,
+                                                               @Param("afterId") Integer afterId,
+                                                               Pageable pageable);
+    
+    // Streams rows off an open MySQL result set (fetch size MIN_VALUE) for exports.
+    // Warehouse and manager are fetched in the same statement because the connection
+    // cannot run secondary selects while the result set is still streaming.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.warehouse w LEFT JOIN FETCH w.manager ORDER BY i.inventoryId")
+    Stream<Inventory> streamAllForExport();
+    
+    @Query("SELECT i.warehouse.warehouseId AS warehouseId, COUNT(i) AS skuCount, " +
+           "COALESCE(SUM(i.quantity), 0) AS totalUnits, " +
+           "COALESCE(SUM(i.quantity * i.unitPrice), 0) AS stockValue, " +
+           "SUM(CASE WHEN i.quantity <= i.reorderPoint THEN 1 ELSE 0 END) AS restockCount " +
+           "FROM Inventory i GROUP BY i.warehouse.warehouseId")
+    List<WarehouseInventoryTotals> aggregateByWarehouse();
+    
+    interface WarehouseInventoryTotals {
+        Integer getWarehouseId();
+        Long getSkuCount();
+        Long getTotalUnits();
+        BigDecimal getStockValue();
+        Long getRestockCount();
+    }
 }
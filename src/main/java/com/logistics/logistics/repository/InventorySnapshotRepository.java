@@ -0,0 +1,18 @@
+package com.logistics.logistics.repository;
+
+import com.logistics.logistics.model.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+    
+    Optional<InventorySnapshot> findFirstByInventoryIdAndMovementIdLessThanEqualOrderByMovementIdDesc(Integer inventoryId,
+                                                                                                        Long movementId);
+    
+    @Query("SELECT MAX(s.movementId) FROM InventorySnapshot s")
+    Long findLastSnapshotSequence();
+}
@@ -3,8 +3,14 @@ package com.logistics.logistics.repository;
 import com.logistics.logistics.model.InventoryTransfer;
 import com.logistics.logistics.model.Warehouse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +18,18 @@ public interface InventoryTransferRepository extends JpaRepository<InventoryTran
     List<InventoryTransfer> findBySourceWarehouse(Warehouse sourceWarehouse);
     List<InventoryTransfer> findByDestinationWarehouse(Warehouse destinationWarehouse);
     List<InventoryTransfer> findByStatus(InventoryTransfer.TransferStatus status);
+    List<InventoryTransfer> findByStatusInOrderByTransferIdAsc(Collection<InventoryTransfer.TransferStatus> statuses);
+    
+    // Status changes are conditional, so two executors of one transfer cannot both move it on;
+    // returns 0 when the transfer is no longer in one of the `from` states
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE InventoryTransfer t SET t.status = :status, t.failureReason = :failureReason, " +
+           "t.completedAt = :completedAt, t.version = t.version + 1 " +
+           "WHERE t.transferId = :id AND t.status IN :from")
+    int changeStatus(@Param("id") Integer transferId,
+                     @Param("from") Collection<InventoryTransfer.TransferStatus> from,
+                     @Param("status") InventoryTransfer.TransferStatus status,
+                     @Param("failureReason") String failureReason,
+                     @Param("completedAt") LocalDateTime completedAt);
 }
@@ -3,6 +3,7 @@ package com.logistics.logistics.repository;
 import com.logistics.logistics.model.Warehouse;
 import com.logistics.logistics.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +15,8 @@ public interface WarehouseRepository extends JpaRepository<Warehouse, Integer> {
     List<Warehouse> findByIsActive(Boolean isActive);
     Optional<Warehouse> findByName(String name);
     List<Warehouse> findByLocationContaining(String locationKeyword);
+    
+    // [warehouseId, capacity] of the warehouses counted in fleet stats
+    @Query("SELECT w.warehouseId, w.capacity FROM Warehouse w WHERE w.isActive = true")
+    List<Object[]> findActiveCapacities();
 }
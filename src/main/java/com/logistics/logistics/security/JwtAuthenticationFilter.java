@@ -1,14 +1,21 @@
 package com.logistics.logistics.security;
 
+import com.logistics.logistics.model.UserRole;
 import com.logistics.logistics.service.JwtService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -16,13 +23,31 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
+/**
+ * Authenticates requests carrying a Bearer token. In the default claims mode (jwt.auth.mode=claims)
+ * the Authentication is built from the verified token: the subject and role claim, checked against
+ * {@link UserStatusCache} so a removed user or a changed role stops working without a query per
+ * request. jwt.auth.mode=database loads the user from the database on every request instead. In both
+ * modes a token found in {@link TokenRevocationList} is rejected, even if its verification was cached.
+ */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    public static final String MODE_CLAIMS = "claims";
+    public static final String MODE_DATABASE = "database";
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final UserStatusCache userStatusCache;
+    private final TokenRevocationList tokenRevocationList;
+
+    @Value("${jwt.auth.mode:claims}")
+    private String authMode;
 
     @Override
     protected void doFilterInternal(
@@ -32,7 +57,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -40,12 +64,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            
-            if (jwtService.validateToken(jwt, userDetails)) {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = MODE_DATABASE.equals(authMode) ? loadFromDatabase(jwt) : loadFromClaims(jwt);
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -59,4 +81,49 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    // Left unauthenticated (and so answered with 401) unless the token is valid and still matches the user
+    private UserDetails loadFromClaims(String jwt) {
+        JwtService.VerifiedToken token = verify(jwt);
+        if (token == null || token.username() == null || token.role() == null) {
+            return null;
+        }
+
+        UserRole role;
+        try {
+            role = UserRole.fromValue(token.role());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        Optional<UserRole> currentRole = userStatusCache.findRole(token.username());
+        if (currentRole.isEmpty() || currentRole.get() != role) {
+            logger.debug("Token for {} no longer matches the user, role claim {}", token.username(), token.role());
+            return null;
+        }
+        return new User(token.username(), "", List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+    }
+
+    private UserDetails loadFromDatabase(String jwt) {
+        JwtService.VerifiedToken token = verify(jwt);
+        if (token == null || token.username() == null) {
+            return null;
+        }
+        return this.userDetailsService.loadUserByUsername(token.username());
+    }
+
+    // One parse and signature check per token, skipped entirely when JwtService has seen it before
+    private JwtService.VerifiedToken verify(String jwt) {
+        JwtService.VerifiedToken token;
+        try {
+            token = jwtService.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected bearer token: {}", e.getMessage());
+            return null;
+        }
+        if (tokenRevocationList.isRevoked(token)) {
+            logger.debug("Rejected revoked token {} of user {}", token.tokenId(), token.username());
+            return null;
+        }
+        return token;
+    }
 }
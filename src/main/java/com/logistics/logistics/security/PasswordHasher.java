@@ -0,0 +1,122 @@
+package com.logistics.logistics.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt hashing and checks on a dedicated pool of auth.hashing.threads threads, so a burst of
+ * logins cannot take every request thread. At most auth.hashing.queue-capacity calls may wait for the
+ * pool; beyond that, or when a call has waited auth.hashing.timeout-ms, it fails with
+ * {@link TaskRejectedException}, which is answered with 503. The request thread still waits for the
+ * result, but only threads + queue-capacity of them can be waiting at once.
+ *
+ * A stored hash whose cost differs from auth.bcrypt.strength is reported by {@link #check} together with
+ * a new hash at the configured cost, so accounts follow a strength change on their next login.
+ */
+@Component
+public class PasswordHasher {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final int strength;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor pool;
+
+    // Outcome of checking a password; upgradedHash is set when the stored hash should be replaced
+    public record Check(boolean matches, String upgradedHash) {
+    }
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${auth.bcrypt.strength:10}") int strength,
+                          @Value("${auth.hashing.threads:2}") int threads,
+                          @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+                          @Value("${auth.hashing.timeout-ms:5000}") long timeoutMs) {
+        if (threads <= 0 || queueCapacity <= 0 || timeoutMs <= 0) {
+            throw new IllegalArgumentException("auth.hashing.threads, queue-capacity and timeout-ms must be positive");
+        }
+        this.passwordEncoder = passwordEncoder;
+        this.strength = strength;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + counter.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        meterRegistry.gauge("auth.password-hashing.queued", pool, executor -> executor.getQueue().size());
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public Check check(String rawPassword, String storedHash) {
+        return run(() -> {
+            if (!passwordEncoder.matches(rawPassword, storedHash)) {
+                return new Check(false, null);
+            }
+            return new Check(true, needsRehash(storedHash) ? passwordEncoder.encode(rawPassword) : null);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // BCrypt hashes look like $2a$10$...; the two digits are the cost the hash was made with
+    private boolean needsRehash(String storedHash) {
+        if (storedHash.length() < 7 || storedHash.charAt(3) != '$' || storedHash.charAt(6) != '$') {
+            return true;
+        }
+        try {
+            return Integer.parseInt(storedHash.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = pool.submit(task);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Password hashing queue is full, rejecting request");
+            throw new TaskRejectedException("Too many sign-in requests, please retry later", e);
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            logger.warn("Password hashing did not complete within {} ms, rejecting request", timeoutMs);
+            throw new TaskRejectedException("Too many sign-in requests, please retry later", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new TaskRejectedException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.logistics.logistics.security;
+
+import com.logistics.logistics.model.TokenRevocation;
+import com.logistics.logistics.repository.TokenRevocationRepository;
+import com.logistics.logistics.service.JwtService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Access tokens that must no longer be accepted although they are validly signed and unexpired: single
+ * tokens by their jti, and all tokens of a user issued before a cutoff. {@link #isRevoked} runs on every
+ * authenticated request, so both sets are held in memory behind a {@link BloomFilter}; a token that was
+ * never revoked, which is nearly every token, is answered by the filter alone.
+ *
+ * Revocations are written to the TokenRevocations table before they take effect here. Every
+ * jwt.revocation.reload-interval-ms expired rows are deleted and the sets are rebuilt from the table,
+ * which drops expired entries, resizes the filters and picks up revocations made by other instances.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationList {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+
+    @Value("${jwt.expiration}")
+    private long accessTokenExpirationMs;
+
+    @Value("${jwt.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile State state;
+
+    // Replaced as a whole on reload; between reloads revocations are added to it under the lock
+    private record State(BloomFilter tokenFilter, Map<String, Instant> revokedTokens,
+                         BloomFilter userFilter, Map<String, Long> userNotBefore) {
+    }
+
+    @PostConstruct
+    void start() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.reload-interval-ms:60000}",
+            initialDelayString = "${jwt.revocation.reload-interval-ms:60000}")
+    void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            logger.error("Reloading token revocations failed: {}", e.getMessage(), e);
+        }
+    }
+
+    public boolean isRevoked(JwtService.VerifiedToken token) {
+        State current = state;
+        String username = token.username();
+        if (username != null && current.userFilter().mightContain(username)) {
+            Long notBefore = current.userNotBefore().get(username);
+            if (notBefore != null && token.issuedAt().getEpochSecond() < notBefore) {
+                return true;
+            }
+        }
+        String tokenId = token.tokenId();
+        return tokenId != null && current.tokenFilter().mightContain(tokenId)
+                && current.revokedTokens().containsKey(tokenId);
+    }
+
+    // Kept until the token itself expires; a token without a jti can only be cut off with all of its user's
+    public synchronized void revokeToken(JwtService.VerifiedToken token) {
+        if (token.tokenId() == null) {
+            logger.info("Token of user {} has no id, revoking all of the user's tokens instead", token.username());
+            revokeUser(token.username());
+            return;
+        }
+        Instant now = Instant.now();
+        Instant expiresAt = token.expiresAt().equals(Instant.MAX)
+                ? now.plusMillis(accessTokenExpirationMs) : token.expiresAt();
+        tokenRevocationRepository.save(TokenRevocation.builder()
+                .kind(TokenRevocation.Kind.TOKEN)
+                .subject(token.tokenId())
+                .expiresAt(toLocal(expiresAt))
+                .revokedAt(toLocal(now))
+                .build());
+        addToken(state, token.tokenId(), expiresAt);
+        logger.info("Revoked token {} of user {}", token.tokenId(), token.username());
+    }
+
+    /**
+     * Rejects every token of the user issued up to now. The iat claim has whole seconds, so tokens
+     * issued later in the current second are rejected as well. Kept until those tokens have expired.
+     */
+    public synchronized void revokeUser(String username) {
+        Instant now = Instant.now();
+        Instant notBefore = now.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        tokenRevocationRepository.save(TokenRevocation.builder()
+                .kind(TokenRevocation.Kind.USER)
+                .subject(username)
+                .notBefore(toLocal(notBefore))
+                .expiresAt(toLocal(now.plus(Duration.ofMillis(accessTokenExpirationMs))))
+                .revokedAt(toLocal(now))
+                .build());
+        addUser(state, username, notBefore.getEpochSecond());
+        logger.info("Revoked all tokens of user {} issued before {}", username, notBefore);
+    }
+
+    synchronized void reload() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = tokenRevocationRepository.deleteExpired(now);
+        List<TokenRevocation> revocations = tokenRevocationRepository.findByExpiresAtAfter(now);
+
+        int size = Math.max(expectedEntries, revocations.size() * 2);
+        State reloaded = new State(new BloomFilter(size, falsePositiveRate), new ConcurrentHashMap<>(),
+                new BloomFilter(size, falsePositiveRate), new ConcurrentHashMap<>());
+        for (TokenRevocation revocation : revocations) {
+            if (revocation.getKind() == TokenRevocation.Kind.TOKEN) {
+                addToken(reloaded, revocation.getSubject(), toInstant(revocation.getExpiresAt()));
+            } else if (revocation.getNotBefore() != null) {
+                addUser(reloaded, revocation.getSubject(), toInstant(revocation.getNotBefore()).getEpochSecond());
+            }
+        }
+        state = reloaded;
+        logger.debug("Loaded {} token revocations, pruned {}", revocations.size(), deleted);
+    }
+
+    // The map entry before the filter bit, so a lookup that passes the filter finds the entry
+    private static void addToken(State target, String tokenId, Instant expiresAt) {
+        target.revokedTokens().put(tokenId, expiresAt);
+        target.tokenFilter().add(tokenId);
+    }
+
+    private static void addUser(State target, String username, long notBeforeEpochSecond) {
+        target.userNotBefore().merge(username, notBeforeEpochSecond, Math::max);
+        target.userFilter().add(username);
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
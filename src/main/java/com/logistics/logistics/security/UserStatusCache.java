@@ -0,0 +1,54 @@
+package com.logistics.logistics.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.logistics.logistics.model.User;
+import com.logistics.logistics.model.UserRole;
+import com.logistics.logistics.repository.UserRepository;
+import com.logistics.logistics.service.UserChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Current role of each user, for claims-only authentication. A token is only honoured while its user
+ * still exists with the role named in the token, so an entry is reloaded at most every
+ * jwt.user-status.ttl-seconds and dropped at once when a {@link UserChangedEvent} is published.
+ * Users that do not exist are cached too, so a token for a removed user costs no query either.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserStatusCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${jwt.user-status.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${jwt.user-status.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private LoadingCache<String, Optional<UserRole>> roles;
+
+    @PostConstruct
+    void init() {
+        roles = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build(username -> userRepository.findByUsername(username).map(User::getRole));
+    }
+
+    public Optional<UserRole> findRole(String username) {
+        return roles.get(username);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        roles.invalidate(event.username());
+    }
+}
@@ -2,16 +2,18 @@ package com.logistics.logistics.service;
 
 import com.logistics.logistics.dto.AuthenticationRequest;
 import com.logistics.logistics.dto.AuthenticationResponse;
+import com.logistics.logistics.dto.RefreshTokenRequest;
 import com.logistics.logistics.dto.RegistrationRequest;
 import com.logistics.logistics.model.User;
 import com.logistics.logistics.model.UserRole;
 import com.logistics.logistics.repository.UserRepository;
+import com.logistics.logistics.security.PasswordHasher;
+import com.logistics.logistics.security.TokenRevocationList;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -20,9 +22,11 @@ public class AuthService {
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
     
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList tokenRevocationList;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AuthenticationResponse register(RegistrationRequest request) {
         logger.info("Attempting to register user: {}", request.getUsername());
@@ -40,17 +44,19 @@ public class AuthService {
         var user = User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
+                .passwordHash(passwordHasher.encode(request.getPassword()))
                 .role(userRole)
                 .build();
         
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUsername()));
         logger.info("User registered successfully: {}", user);
         
         var jwtToken = jwtService.generateToken(user);
         return AuthenticationResponse.builder()
                 .token(jwtToken)
                 .role(user.getRoleValue())
+                .refreshToken(refreshTokenService.issue(user.getUsername()))
                 .build();
     }
 
@@ -79,17 +85,17 @@ public class AuthService {
                 throw new IllegalArgumentException("User has no role assigned");
             }
             
-            // Attempt authentication
-            try {
-                authenticationManager.authenticate(
-                        new UsernamePasswordAuthenticationToken(
-                                request.getUsername(),
-                                request.getPassword()
-                        )
-                );
-            } catch (Exception e) {
-                logger.error("Authentication failed for user: {}, error: {}", request.getUsername(), e.getMessage());
-                throw new IllegalArgumentException("Authentication failed: " + e.getMessage());
+            // Checked here against the user loaded above, on the hashing pool, instead of loading it again
+            // through the AuthenticationManager
+            PasswordHasher.Check check = passwordHasher.check(request.getPassword(), user.getPasswordHash());
+            if (!check.matches()) {
+                logger.error("Authentication failed for user: {}, error: Bad credentials", request.getUsername());
+                throw new IllegalArgumentException("Authentication failed: Bad credentials");
+            }
+            
+            if (check.upgradedHash() != null
+                    && userRepository.updatePasswordHash(user.getUserId(), user.getPasswordHash(), check.upgradedHash()) > 0) {
+                logger.info("Rehashed password of user {} at the configured BCrypt strength", request.getUsername());
             }
             
             logger.info("User authenticated successfully: {}", user);
@@ -98,10 +104,59 @@ public class AuthService {
             return AuthenticationResponse.builder()
                     .token(jwtToken)
                     .role(user.getRoleValue())
+                    .refreshToken(refreshTokenService.issue(user.getUsername()))
                     .build();
         } catch (Exception e) {
             logger.error("Error during authentication: {}", e.getMessage(), e);
             throw e;
         }
     }
+
+    /**
+     * Issues a new access token for a refresh token, without a password check. The refresh token is
+     * rotated: the response carries its replacement and the presented one cannot be used again.
+     */
+    public AuthenticationResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        var user = userRepository.findByUsername(rotation.username())
+                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
+        logger.info("Access token refreshed for user: {}", user.getUsername());
+        
+        return AuthenticationResponse.builder()
+                .token(jwtService.generateToken(user))
+                .role(user.getRoleValue())
+                .refreshToken(rotation.refreshToken())
+                .build();
+    }
+
+    /**
+     * Revokes the presented access token and, if one is given, the refresh token's family, so neither
+     * works again although both are unexpired.
+     */
+    public void logout(String authorizationHeader, RefreshTokenRequest request) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            throw new IllegalArgumentException("Bearer token is required");
+        }
+        JwtService.VerifiedToken token;
+        try {
+            token = jwtService.verify(authorizationHeader.substring(7));
+        } catch (JwtException e) {
+            throw new IllegalArgumentException("Invalid token");
+        }
+        tokenRevocationList.revokeToken(token);
+        if (request != null && request.getRefreshToken() != null) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+        logger.info("User logged out: {}", token.username());
+    }
+    
+    // Ends every session of the user: issued access tokens stop working and refresh tokens are revoked
+    public void revokeAllTokens(String username) {
+        if (!userRepository.existsByUsername(username)) {
+            throw new IllegalArgumentException("User not found");
+        }
+        tokenRevocationList.revokeUser(username);
+        int refreshTokens = refreshTokenService.revokeUser(username);
+        logger.info("Revoked all tokens of user {}, including {} refresh tokens", username, refreshTokens);
+    }
 }
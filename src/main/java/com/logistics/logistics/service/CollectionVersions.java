@@ -0,0 +1,64 @@
+package com.logistics.logistics.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Modification counters for the inventory and warehouse collections, used as cheap strong ETags.
+ * A counter is bumped after every committed change, so a matching ETag proves the collection is
+ * unchanged without loading any rows. The boot epoch keeps tags from colliding across restarts.
+ */
+@Component
+public class CollectionVersions {
+    
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong inventoryVersion = new AtomicLong();
+    private final AtomicLong warehousesVersion = new AtomicLong();
+    private final Map<Integer, AtomicLong> inventoryVersionByWarehouse = new ConcurrentHashMap<>();
+    
+    public String inventoryEtag() {
+        return etag("inventory", inventoryVersion.get());
+    }
+    
+    public String inventoryEtag(Integer warehouseId) {
+        AtomicLong counter = inventoryVersionByWarehouse.get(warehouseId);
+        return etag("inventory-" + warehouseId, counter != null ? counter.get() : 0);
+    }
+    
+    public String warehousesEtag() {
+        return etag("warehouses", warehousesVersion.get());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        inventoryVersion.incrementAndGet();
+        if (event.before() != null) {
+            warehouseCounter(event.before().getWarehouseId()).incrementAndGet();
+        }
+        if (event.after() != null) {
+            warehouseCounter(event.after().getWarehouseId()).incrementAndGet();
+        }
+    }
+    
+    /**
+     * Called when a warehouse is created or changed. Inventory responses carry the warehouse name,
+     * so the inventory collections are versioned along with it.
+     */
+    public void warehouseChanged(Integer warehouseId) {
+        warehousesVersion.incrementAndGet();
+        inventoryVersion.incrementAndGet();
+        warehouseCounter(warehouseId).incrementAndGet();
+    }
+    
+    private AtomicLong warehouseCounter(Integer warehouseId) {
+        return inventoryVersionByWarehouse.computeIfAbsent(warehouseId, id -> new AtomicLong());
+    }
+    
+    private String etag(String collection, long version) {
+        return "\"" + collection + "-" + epoch + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,129 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.model.Warehouse;
+import com.logistics.logistics.repository.WarehouseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for inventory and warehouse lookups, backed by the Caffeine caches configured
+ * under {@code spring.cache.*}.
+ * <p>
+ * Warehouses are cached as immutable {@link CachedWarehouse} snapshots rather than shared entities.
+ * A lookup that loaded its value before a concurrent invalidation must not put it back for the whole
+ * TTL, so every key has an invalidation counter (striped): a loaded value is only put if the counter
+ * did not move while it was read, and is evicted again if the counter moved during the put.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityCache {
+    public static final String INVENTORY = "inventory";
+    public static final String WAREHOUSES = "warehouses";
+    
+    private static final int GENERATION_STRIPES = 256;
+    
+    private final WarehouseRepository warehouseRepository;
+    private final CacheManager cacheManager;
+    
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    
+    // What the warehouse lookups need; copied out of the entity so cached state can never be modified
+    public record CachedWarehouse(Integer warehouseId, String name, String location, BigDecimal capacity,
+                                  Integer managerId, String managerName, String contactPhone,
+                                  String contactEmail, Boolean isActive) {
+        
+        static CachedWarehouse of(Warehouse warehouse) {
+            return new CachedWarehouse(warehouse.getWarehouseId(), warehouse.getName(), warehouse.getLocation(),
+                    warehouse.getCapacity(),
+                    warehouse.getManager() != null ? warehouse.getManager().getUserId() : null,
+                    warehouse.getManager() != null ? warehouse.getManager().getUsername() : null,
+                    warehouse.getContactPhone(), warehouse.getContactEmail(), warehouse.getIsActive());
+        }
+        
+        /**
+         * A new detached Warehouse for use as an association target, e.g. Inventory.warehouse. Only the
+         * id is written; the manager is not loaded, so it must not be saved or mapped as a warehouse.
+         */
+        public Warehouse toReference() {
+            return Warehouse.builder()
+                    .warehouseId(warehouseId)
+                    .name(name)
+                    .location(location)
+                    .capacity(capacity)
+                    .contactPhone(contactPhone)
+                    .contactEmail(contactEmail)
+                    .isActive(isActive)
+                    .build();
+        }
+    }
+    
+    public CachedWarehouse findWarehouse(Integer id) {
+        return readThrough(WAREHOUSES, id,
+                () -> warehouseRepository.findById(id).map(CachedWarehouse::of).orElse(null));
+    }
+    
+    public InventoryResponse findInventory(Integer id, Supplier<InventoryResponse> loader) {
+        return readThrough(INVENTORY, id, loader);
+    }
+    
+    // Cached inventory responses carry the warehouse name, so they are dropped as well
+    public void warehouseChanged(Integer warehouseId) {
+        invalidate(WAREHOUSES, warehouseId);
+        for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+            generations.incrementAndGet(stripe);
+        }
+        Cache inventory = cacheManager.getCache(INVENTORY);
+        if (inventory != null) {
+            inventory.clear();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        invalidate(INVENTORY, event.inventoryId());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> T readThrough(String cacheName, Integer id, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return loader.get();
+        }
+        Cache.ValueWrapper cached = cache.get(id);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        
+        int stripe = stripe(cacheName, id);
+        long generation = generations.get(stripe);
+        T value = loader.get();
+        if (value != null && generations.get(stripe) == generation) {
+            cache.put(id, value);
+            // An invalidation between the check and the put may have evicted nothing
+            if (generations.get(stripe) != generation) {
+                cache.evict(id);
+            }
+        }
+        return value;
+    }
+    
+    private void invalidate(String cacheName, Integer id) {
+        generations.incrementAndGet(stripe(cacheName, id));
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(id);
+        }
+    }
+    
+    private static int stripe(String cacheName, Integer id) {
+        return Math.floorMod(31 * cacheName.hashCode() + id.hashCode(), GENERATION_STRIPES);
+    }
+}
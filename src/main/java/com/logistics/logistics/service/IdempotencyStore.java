@@ -0,0 +1,154 @@
+package com.logistics.logistics.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.logistics.logistics.model.IdempotencyRecord;
+import com.logistics.logistics.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Remembers the response to every mutating request sent with an Idempotency-Key for
+ * inventory.idempotency.ttl-minutes. Completed responses are kept in a bounded in-memory cache in
+ * front of the IdempotencyKeys table, so a replay is usually served without a query, while the table
+ * makes keys survive restarts and work across instances.
+ *
+ * A key is claimed by inserting its reservation row; the primary key makes that atomic, so of two
+ * concurrent requests with the same key exactly one proceeds. A reservation left behind by a request
+ * that never finished is taken over after inventory.idempotency.stale-reservation-ms. Expired rows are
+ * deleted every inventory.idempotency.prune-interval-ms.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyStore {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private static final String RESERVE_SQL = "INSERT INTO IdempotencyKeys (idempotency_key, request_hash, " +
+            "created_at, expires_at) VALUES (?, ?, ?, ?)";
+
+    private static final String COMPLETE_SQL = "UPDATE IdempotencyKeys SET status_code = ?, content_type = ?, " +
+            "location = ?, response_body = ? WHERE idempotency_key = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${inventory.idempotency.max-entries:100000}")
+    private long maxEntries;
+
+    @Value("${inventory.idempotency.stale-reservation-ms:60000}")
+    private long staleReservationMs;
+
+    private Cache<String, StoredResponse> completed;
+
+    public record StoredResponse(String requestHash, int statusCode, String contentType, String location,
+                                 byte[] body) {
+    }
+
+    public enum Outcome { PROCEED, REPLAY, IN_PROGRESS, MISMATCH }
+
+    public record Claim(Outcome outcome, StoredResponse response) {
+    }
+
+    @PostConstruct
+    void start() {
+        completed = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    /**
+     * Either claims the key for this request (PROCEED) or explains why the request must not run:
+     * the stored response to replay, a different request that used the key, or one still in progress.
+     */
+    public Claim claim(String key, String requestHash) {
+        StoredResponse cached = completed.getIfPresent(key);
+        if (cached != null) {
+            return replayOrMismatch(cached, requestHash);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                jdbcTemplate.update(RESERVE_SQL, key, requestHash, Timestamp.valueOf(now),
+                        Timestamp.valueOf(now.plusMinutes(ttlMinutes)));
+                return new Claim(Outcome.PROCEED, null);
+            } catch (DuplicateKeyException e) {
+                Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(key);
+                if (existing.isEmpty()) {
+                    // Released or pruned in the meantime
+                    continue;
+                }
+                IdempotencyRecord record = existing.get();
+                if (record.getExpiresAt().isBefore(now)) {
+                    idempotencyRecordRepository.deleteById(key);
+                    continue;
+                }
+                if (record.getStatusCode() != null) {
+                    StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getStatusCode(),
+                            record.getContentType(), record.getLocation(), record.getResponseBody());
+                    completed.put(key, stored);
+                    return replayOrMismatch(stored, requestHash);
+                }
+                if (!record.getRequestHash().equals(requestHash)) {
+                    return new Claim(Outcome.MISMATCH, null);
+                }
+                LocalDateTime staleBefore = now.minus(Duration.ofMillis(staleReservationMs));
+                if (idempotencyRecordRepository.deleteStaleReservation(key, staleBefore) == 0) {
+                    return new Claim(Outcome.IN_PROGRESS, null);
+                }
+                logger.warn("Taking over stale idempotency reservation {}", key);
+            }
+        }
+        return new Claim(Outcome.IN_PROGRESS, null);
+    }
+
+    public void complete(String key, StoredResponse response) {
+        jdbcTemplate.update(COMPLETE_SQL, response.statusCode(), response.contentType(), response.location(),
+                response.body(), key);
+        completed.put(key, response);
+    }
+
+    // The request did not produce an outcome worth replaying, so a retry may run it again
+    public void release(String key) {
+        idempotencyRecordRepository.deleteReservation(key);
+    }
+
+    private Claim replayOrMismatch(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            return new Claim(Outcome.MISMATCH, null);
+        }
+        meterRegistry.counter("inventory.idempotency.replays").increment();
+        return new Claim(Outcome.REPLAY, stored);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.idempotency.prune-interval-ms:600000}",
+            initialDelayString = "${inventory.idempotency.prune-interval-ms:600000}")
+    void prune() {
+        try {
+            int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+            if (deleted > 0) {
+                logger.info("Pruned {} expired idempotency keys", deleted);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Pruning idempotency keys failed: {}", e.getMessage(), e);
+        }
+    }
+}
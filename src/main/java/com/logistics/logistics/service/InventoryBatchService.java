@@ -0,0 +1,355 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.dto.BulkTransferResponse;
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.dto.QuantityAdjustment;
+import com.logistics.logistics.dto.QuantityAdjustmentResult;
+import com.logistics.logistics.dto.QuantityBatchResponse;
+import com.logistics.logistics.dto.TransferLine;
+import com.logistics.logistics.model.Inventory;
+import com.logistics.logistics.model.InventoryMovement;
+import com.logistics.logistics.model.InventoryTransfer;
+import com.logistics.logistics.model.User;
+import com.logistics.logistics.model.Warehouse;
+import com.logistics.logistics.repository.InventoryRepository;
+import com.logistics.logistics.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based inventory writes.
+ *
+ * Quantity batches apply many deltas in one transaction. Every delta is the same conditional UPDATE as
+ * PATCH /api/inventory/{id}/quantity, sent as a single JDBC batch, so each row count tells whether that
+ * adjustment landed. In atomic mode any failure rolls the whole batch back; in partial mode the failed
+ * adjustments are simply reported and the rest commit.
+ *
+ * Bulk transfers lock every source and destination row with one SELECT ... FOR UPDATE, apply all lines
+ * in memory, insert the transfer records as one JDBC batch already COMPLETED and let Hibernate flush the
+ * quantity updates in batches. Any invalid line rejects the whole transfer.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryBatchService {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryBatchService.class);
+
+    public static final String MODE_ATOMIC = "atomic";
+    public static final String MODE_PARTIAL = "partial";
+
+    private static final String INSERT_TRANSFER_SQL = "INSERT INTO InventoryTransfers (source_warehouse_id, " +
+            "destination_warehouse_id, inventory_id, quantity, status, initiated_by, initiated_at, completed_at, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String ADJUST_QUANTITY_SQL = "UPDATE Inventory SET quantity = quantity + ?, updated_at = ?, " +
+            "version = version + 1 WHERE inventory_id = ? AND quantity + ? >= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InventoryRepository inventoryRepository;
+    private final UserRepository userRepository;
+    private final EntityCache entityCache;
+    private final TransferCoordinator transferCoordinator;
+    private final OptimisticRetry optimisticRetry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.batch.max-size:5000}")
+    private int maxBatchSize;
+
+    @Transactional
+    public QuantityBatchResponse adjustQuantities(List<QuantityAdjustment> adjustments, String mode) {
+        String batchMode = resolveMode(mode);
+        if (adjustments == null || adjustments.isEmpty()) {
+            throw new IllegalArgumentException("At least one adjustment is required");
+        }
+        if (adjustments.size() > maxBatchSize) {
+            logger.error("Quantity batch of {} exceeds the maximum of {}", adjustments.size(), maxBatchSize);
+            throw new IllegalArgumentException("Batch exceeds the maximum size of " + maxBatchSize);
+        }
+        logger.info("Applying {} quantity adjustments in {} mode", adjustments.size(), batchMode);
+
+        List<QuantityAdjustmentResult> results = new ArrayList<>(adjustments.size());
+        List<QuantityAdjustmentResult> executed = new ArrayList<>(adjustments.size());
+        List<Object[]> parameters = new ArrayList<>(adjustments.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (QuantityAdjustment adjustment : adjustments) {
+            QuantityAdjustmentResult result = QuantityAdjustmentResult.builder()
+                    .inventoryId(adjustment.getInventoryId())
+                    .delta(adjustment.getDelta())
+                    .build();
+            results.add(result);
+            if (adjustment.getInventoryId() == null || adjustment.getDelta() == null) {
+                result.setStatus(QuantityAdjustmentResult.Status.INVALID);
+                result.setMessage("inventoryId and delta are required");
+                continue;
+            }
+            executed.add(result);
+            parameters.add(new Object[] {adjustment.getDelta(), now, adjustment.getInventoryId(), adjustment.getDelta()});
+        }
+
+        int[] rowCounts = parameters.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(ADJUST_QUANTITY_SQL, parameters);
+
+        Set<Integer> rejectedIds = new HashSet<>();
+        for (int i = 0; i < rowCounts.length; i++) {
+            QuantityAdjustmentResult result = executed.get(i);
+            if (rowCounts[i] > 0) {
+                result.setStatus(QuantityAdjustmentResult.Status.APPLIED);
+            } else {
+                rejectedIds.add(result.getInventoryId());
+            }
+        }
+        if (!rejectedIds.isEmpty()) {
+            explainRejections(executed, rejectedIds);
+        }
+
+        long failed = results.stream()
+                .filter(result -> result.getStatus() != QuantityAdjustmentResult.Status.APPLIED)
+                .count();
+
+        if (failed > 0 && MODE_ATOMIC.equals(batchMode)) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            results.stream()
+                    .filter(result -> result.getStatus() == QuantityAdjustmentResult.Status.APPLIED)
+                    .forEach(result -> result.setStatus(QuantityAdjustmentResult.Status.ROLLED_BACK));
+            logger.error("Atomic quantity batch rolled back, {} of {} adjustments failed", failed, results.size());
+            return buildResponse(batchMode, false, 0, results);
+        }
+
+        publishChanges(results);
+        int applied = (int) (results.size() - failed);
+        logger.info("Quantity batch committed: {} applied, {} failed", applied, failed);
+        return buildResponse(batchMode, true, applied, results);
+    }
+
+    public BulkTransferResponse transferInventoryBulk(List<TransferLine> lines, String username) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("At least one transfer line is required");
+        }
+        if (lines.size() > maxBatchSize) {
+            logger.error("Bulk transfer of {} lines exceeds the maximum of {}", lines.size(), maxBatchSize);
+            throw new IllegalArgumentException("Batch exceeds the maximum size of " + maxBatchSize);
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            TransferLine line = lines.get(i);
+            if (line.getSourceInventoryId() == null || line.getDestinationWarehouseId() == null || line.getQuantity() == null) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": sourceInventoryId, destinationWarehouseId and quantity are required");
+            }
+            if (line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": Transfer quantity must be positive");
+            }
+        }
+        logger.info("Bulk transferring {} lines", lines.size());
+
+        // Unlocked read, only to learn which stock the lines touch; re-checked under the row locks
+        Set<Integer> sourceIds = lines.stream().map(TransferLine::getSourceInventoryId).collect(Collectors.toSet());
+        Map<Integer, InventoryResponse> sources = inventoryRepository.findInventoryResponsesByIds(sourceIds).stream()
+                .collect(Collectors.toMap(InventoryResponse::getInventoryId, Function.identity()));
+        Set<TransferCoordinator.StockKey> stock = new HashSet<>();
+        for (int i = 0; i < lines.size(); i++) {
+            TransferLine line = lines.get(i);
+            InventoryResponse source = sources.get(line.getSourceInventoryId());
+            if (source == null) {
+                logger.error("Source inventory not found with id: {}", line.getSourceInventoryId());
+                throw new IllegalArgumentException("Line " + (i + 1) + ": Source inventory not found with id: " + line.getSourceInventoryId());
+            }
+            stock.add(new TransferCoordinator.StockKey(source.getSku(), source.getWarehouseId()));
+            stock.add(new TransferCoordinator.StockKey(source.getSku(), line.getDestinationWarehouseId()));
+        }
+
+        return transferCoordinator.execute(stock, () -> optimisticRetry.execute("transferInventoryBulk",
+                () -> applyBulkTransfer(lines, sources, username)));
+    }
+
+    // Runs inside OptimisticRetry's transaction while TransferCoordinator holds every stock stripe involved
+    private BulkTransferResponse applyBulkTransfer(List<TransferLine> lines, Map<Integer, InventoryResponse> sources,
+                                                   String username) {
+        User initiatedBy = userRepository.findByUsername(username)
+                .orElseThrow(() -> {
+                    logger.error("User not found with username: {}", username);
+                    return new IllegalArgumentException("User not found with username: " + username);
+                });
+
+        Set<String> skus = new HashSet<>();
+        Set<Integer> warehouseIds = new HashSet<>();
+        Map<Integer, Warehouse> destinations = new HashMap<>();
+        for (TransferLine line : lines) {
+            InventoryResponse source = sources.get(line.getSourceInventoryId());
+            skus.add(source.getSku());
+            warehouseIds.add(source.getWarehouseId());
+            warehouseIds.add(line.getDestinationWarehouseId());
+            destinations.computeIfAbsent(line.getDestinationWarehouseId(), id -> Optional.ofNullable(entityCache.findWarehouse(id))
+                    .map(EntityCache.CachedWarehouse::toReference)
+                    .orElseThrow(() -> {
+                        logger.error("Destination warehouse not found with id: {}", id);
+                        return new IllegalArgumentException("Destination warehouse not found with id: " + id);
+                    }));
+        }
+
+        Map<Integer, Inventory> rowsById = new HashMap<>();
+        Map<TransferCoordinator.StockKey, Inventory> rowsByStock = new HashMap<>();
+        for (Inventory row : inventoryRepository.lockBySkusAndWarehouseIds(skus, warehouseIds)) {
+            rowsById.put(row.getInventoryId(), row);
+            rowsByStock.put(new TransferCoordinator.StockKey(row.getSku(), row.getWarehouse().getWarehouseId()), row);
+        }
+
+        Map<Integer, InventoryResponse> before = new HashMap<>();
+        Set<Integer> created = new HashSet<>();
+        Map<Integer, Inventory> touched = new LinkedHashMap<>();
+        List<Object[]> transferRows = new ArrayList<>(lines.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int totalQuantity = 0;
+
+        for (int i = 0; i < lines.size(); i++) {
+            TransferLine line = lines.get(i);
+            InventoryResponse expected = sources.get(line.getSourceInventoryId());
+            Inventory source = rowsById.get(line.getSourceInventoryId());
+            if (source == null || !source.getSku().equals(expected.getSku())
+                    || !source.getWarehouse().getWarehouseId().equals(expected.getWarehouseId())) {
+                logger.error("Source inventory {} was changed or removed during the transfer", line.getSourceInventoryId());
+                throw new IllegalArgumentException("Line " + (i + 1) + ": Source inventory was modified during the transfer, please retry");
+            }
+            if (source.getQuantity() < line.getQuantity()) {
+                logger.error("Insufficient quantity for transfer. Available: {}, Requested: {}", source.getQuantity(), line.getQuantity());
+                throw new IllegalArgumentException("Line " + (i + 1) + ": Insufficient quantity for transfer");
+            }
+
+            before.putIfAbsent(source.getInventoryId(), InventoryService.mapToInventoryResponse(source));
+            source.setQuantity(source.getQuantity() - line.getQuantity());
+            touched.put(source.getInventoryId(), source);
+
+            TransferCoordinator.StockKey destinationKey = new TransferCoordinator.StockKey(source.getSku(), line.getDestinationWarehouseId());
+            Inventory destination = rowsByStock.get(destinationKey);
+            if (destination == null) {
+                // First line into this warehouse creates the row; later lines add to it
+                destination = inventoryRepository.save(Inventory.builder()
+                        .itemName(source.getItemName())
+                        .description(source.getDescription())
+                        .sku(source.getSku())
+                        .quantity(0)
+                        .reorderPoint(source.getReorderPoint())
+                        .reorderQuantity(source.getReorderQuantity())
+                        .unitPrice(source.getUnitPrice())
+                        .warehouse(destinations.get(line.getDestinationWarehouseId()))
+                        .build());
+                rowsByStock.put(destinationKey, destination);
+                created.add(destination.getInventoryId());
+            } else if (!created.contains(destination.getInventoryId())) {
+                before.putIfAbsent(destination.getInventoryId(), InventoryService.mapToInventoryResponse(destination));
+            }
+            destination.setQuantity(destination.getQuantity() + line.getQuantity());
+            touched.put(destination.getInventoryId(), destination);
+
+            transferRows.add(new Object[] {
+                    source.getWarehouse().getWarehouseId(), line.getDestinationWarehouseId(), source.getInventoryId(),
+                    line.getQuantity(), InventoryTransfer.TransferStatus.COMPLETED.name(), initiatedBy.getUserId(), now, now
+            });
+            totalQuantity += line.getQuantity();
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_TRANSFER_SQL, transferRows);
+        // Dirty rows go out as batched UPDATEs (hibernate.jdbc.batch_size) and pick up their new updated_at
+        inventoryRepository.flush();
+
+        List<InventoryResponse> after = new ArrayList<>(touched.size());
+        touched.forEach((inventoryId, row) -> {
+            InventoryResponse current = InventoryService.mapToInventoryResponse(row);
+            after.add(current);
+            // Rows created by this transfer have no before state
+            eventPublisher.publishEvent(new InventoryChangedEvent(before.get(inventoryId), current,
+                    InventoryMovement.MovementType.TRANSFER));
+        });
+        logger.info("Bulk transfer completed: {} lines, {} units", lines.size(), totalQuantity);
+
+        return BulkTransferResponse.builder()
+                .lineCount(lines.size())
+                .totalQuantity(totalQuantity)
+                .inventory(after)
+                .build();
+    }
+
+    private void explainRejections(List<QuantityAdjustmentResult> executed, Set<Integer> rejectedIds) {
+        Set<Integer> existing = new HashSet<>(inventoryRepository.findExistingIds(rejectedIds));
+        for (QuantityAdjustmentResult result : executed) {
+            if (result.getStatus() != null) {
+                continue;
+            }
+            if (existing.contains(result.getInventoryId())) {
+                result.setStatus(QuantityAdjustmentResult.Status.INSUFFICIENT_STOCK);
+                result.setMessage("Cannot reduce inventory below zero");
+            } else {
+                result.setStatus(QuantityAdjustmentResult.Status.NOT_FOUND);
+                result.setMessage("Inventory not found with id: " + result.getInventoryId());
+            }
+        }
+    }
+
+    // One read for the whole batch, then one change event per touched row with its net delta
+    private void publishChanges(List<QuantityAdjustmentResult> results) {
+        Map<Integer, Integer> netDeltas = new LinkedHashMap<>();
+        for (QuantityAdjustmentResult result : results) {
+            if (result.getStatus() == QuantityAdjustmentResult.Status.APPLIED) {
+                netDeltas.merge(result.getInventoryId(), result.getDelta(), Integer::sum);
+            }
+        }
+        if (netDeltas.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, InventoryResponse> current = inventoryRepository.findInventoryResponsesByIds(netDeltas.keySet()).stream()
+                .collect(Collectors.toMap(InventoryResponse::getInventoryId, Function.identity()));
+        for (QuantityAdjustmentResult result : results) {
+            if (result.getStatus() == QuantityAdjustmentResult.Status.APPLIED) {
+                result.setQuantity(current.get(result.getInventoryId()).getQuantity());
+            }
+        }
+        netDeltas.forEach((inventoryId, netDelta) -> {
+            InventoryResponse after = current.get(inventoryId);
+            int previousQuantity = after.getQuantity() - netDelta;
+            InventoryResponse before = after.toBuilder()
+                    .quantity(previousQuantity)
+                    .needsRestock(after.getReorderPoint() != null && previousQuantity <= after.getReorderPoint())
+                    .build();
+            eventPublisher.publishEvent(new InventoryChangedEvent(before, after, InventoryMovement.MovementType.ADJUSTMENT));
+        });
+    }
+
+    private QuantityBatchResponse buildResponse(String mode, boolean committed, int applied,
+                                                List<QuantityAdjustmentResult> results) {
+        return QuantityBatchResponse.builder()
+                .mode(mode)
+                .committed(committed)
+                .applied(applied)
+                .failed(results.size() - applied)
+                .results(results)
+                .build();
+    }
+
+    private String resolveMode(String mode) {
+        if (mode == null || mode.isBlank()) {
+            return MODE_ATOMIC;
+        }
+        String normalized = mode.trim().toLowerCase();
+        if (!MODE_ATOMIC.equals(normalized) && !MODE_PARTIAL.equals(normalized)) {
+            throw new IllegalArgumentException("Unsupported batch mode: " + mode + ". Use atomic or partial");
+        }
+        return normalized;
+    }
+}
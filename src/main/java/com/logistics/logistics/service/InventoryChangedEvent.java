@@ -0,0 +1,50 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.model.InventoryMovement;
+
+import java.util.Map;
+
+/**
+ * Published by {@link InventoryService} whenever an inventory row is written.
+ * {@code before} is null for a newly created row and {@code after} is null for a deleted one;
+ * {@code movementType} is the kind of write, as recorded in the stock ledger.
+ * After-commit listeners can receive the events of one row out of order; {@link #version()} tells
+ * them which one is newer.
+ */
+public record InventoryChangedEvent(InventoryResponse before, InventoryResponse after,
+                                    InventoryMovement.MovementType movementType) {
+
+    public Integer inventoryId() {
+        return after != null ? after.getInventoryId() : before.getInventoryId();
+    }
+
+    // The row version written; a delete outranks every write, null means the writer did not know it
+    public Long version() {
+        return after != null ? after.getVersion() : Long.valueOf(Long.MAX_VALUE);
+    }
+
+    /**
+     * Records the event's version for its row and reports whether a newer or equal one was applied
+     * already. Deletes stay recorded, so a late write cannot bring a deleted row back.
+     */
+    static boolean isStale(InventoryChangedEvent event, Map<Integer, Long> appliedVersions) {
+        Long version = event.version();
+        if (version == null) {
+            return false;
+        }
+        Long applied = appliedVersions.get(event.inventoryId());
+        if (applied != null && applied >= version) {
+            return true;
+        }
+        appliedVersions.put(event.inventoryId(), version);
+        return false;
+    }
+
+    // For seeding: remembers the version a row was loaded with, keeping the higher one
+    static void recordVersion(Map<Integer, Long> appliedVersions, Integer inventoryId, Long version) {
+        if (version != null) {
+            appliedVersions.merge(inventoryId, version, Math::max);
+        }
+    }
+}
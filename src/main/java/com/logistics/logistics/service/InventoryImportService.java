@@ -0,0 +1,437 @@
+package com.logistics.logistics.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistics.logistics.dto.InventoryImportError;
+import com.logistics.logistics.dto.InventoryImportResponse;
+import com.logistics.logistics.dto.InventoryRequest;
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.model.InventoryMovement;
+import com.logistics.logistics.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams an uploaded CSV or NDJSON file into the Inventory table.
+ *
+ * Rows are parsed one at a time and written in chunks of inventory.import.chunk-size, each chunk in
+ * its own transaction: one query finds which (warehouse, sku) pairs already exist, then new rows go in
+ * as one JDBC batch INSERT and, in upsert mode, existing rows as one JDBC batch UPDATE. Warehouses are
+ * resolved once per import. Only the current chunk and the first inventory.import.max-errors row
+ * errors are held in memory, so memory use does not grow with the size of the file.
+ *
+ * CSV files need a header row; columns are matched by name and the ones the export adds (inventoryId,
+ * warehouseName, updatedAt, needsRestock) are ignored, so an export can be imported again as is.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryImportService {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryImportService.class);
+
+    public static final String MODE_INSERT = "insert";
+    public static final String MODE_UPSERT = "upsert";
+
+    private static final String INSERT_INVENTORY_SQL = "INSERT INTO Inventory (itemName, description, sku, quantity, " +
+            "reorder_point, reorder_quantity, unit_price, warehouse_id, created_at, updated_at, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    // unit_price is DECIMAL(10,2)
+    private static final int UNIT_PRICE_SCALE = 2;
+    private static final BigDecimal UNIT_PRICE_LIMIT = new BigDecimal("100000000");
+
+    private static final String UPDATE_INVENTORY_SQL = "UPDATE Inventory SET itemName = ?, description = ?, quantity = ?, " +
+            "reorder_point = ?, reorder_quantity = ?, unit_price = ?, updated_at = ?, version = version + 1 " +
+            "WHERE inventory_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryRepository inventoryRepository;
+    private final EntityCache entityCache;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${inventory.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${inventory.import.max-record-length:65536}")
+    private int maxRecordLength;
+
+    private record Row(long number, InventoryRequest request) {
+    }
+
+    private record StockKey(Integer warehouseId, String sku) {
+    }
+
+    // Running totals for one import; row errors beyond maxErrors are only counted
+    private final class Summary {
+        long total;
+        long inserted;
+        long updated;
+        long failed;
+        final List<InventoryImportError> errors = new ArrayList<>();
+
+        void fail(long row, String sku, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new InventoryImportError(row, sku, message));
+            }
+        }
+    }
+
+    public InventoryImportResponse importInventory(InputStream inputStream, String format, String mode) throws IOException {
+        boolean csv = InventoryService.EXPORT_FORMAT_CSV.equals(format);
+        boolean upsert = resolveMode(mode);
+        logger.info("Importing inventory from {} in {} mode", format, upsert ? MODE_UPSERT : MODE_INSERT);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), 64 * 1024);
+        Summary summary = new Summary();
+        Map<Integer, Boolean> knownWarehouses = new HashMap<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        Map<String, Integer> columns = csv ? readCsvHeader(reader) : null;
+        while (true) {
+            InventoryRequest request;
+            long number = summary.total + 1;
+            try {
+                if (csv) {
+                    List<String> record = readCsvRecord(reader);
+                    if (record == null) {
+                        break;
+                    }
+                    if (record.size() == 1 && record.get(0).isEmpty()) {
+                        continue;
+                    }
+                    summary.total++;
+                    request = toRequest(columns, record);
+                } else {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        break;
+                    }
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    summary.total++;
+                    request = objectMapper.readValue(line, InventoryRequest.class);
+                }
+            } catch (JsonProcessingException e) {
+                summary.total = number;
+                summary.fail(number, null, "Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            } catch (IllegalArgumentException e) {
+                // A CSV record that cannot be read fails before it was counted
+                summary.total = number;
+                summary.fail(number, null, e.getMessage());
+                continue;
+            }
+
+            String error = validate(request, knownWarehouses);
+            if (error != null) {
+                summary.fail(number, request.getSku(), error);
+                continue;
+            }
+            chunk.add(new Row(number, request));
+            if (chunk.size() == chunkSize) {
+                writeChunk(chunk, upsert, summary);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, upsert, summary);
+        }
+
+        logger.info("Inventory import finished: {} rows, {} inserted, {} updated, {} failed",
+                summary.total, summary.inserted, summary.updated, summary.failed);
+        return InventoryImportResponse.builder()
+                .format(format)
+                .mode(upsert ? MODE_UPSERT : MODE_INSERT)
+                .totalRows(summary.total)
+                .inserted(summary.inserted)
+                .updated(summary.updated)
+                .failed(summary.failed)
+                .errors(summary.errors)
+                .errorsTruncated(summary.failed > summary.errors.size())
+                .build();
+    }
+
+    private void writeChunk(List<Row> chunk, boolean upsert, Summary summary) {
+        // Later rows for the same stock in one chunk are rejected rather than silently overriding earlier ones
+        Map<StockKey, Row> rows = new HashMap<>();
+        for (Row row : chunk) {
+            StockKey key = new StockKey(row.request().getWarehouseId(), row.request().getSku());
+            if (rows.putIfAbsent(key, row) != null) {
+                summary.fail(row.number(), row.request().getSku(), "Duplicate SKU " + row.request().getSku()
+                        + " for warehouse " + row.request().getWarehouseId() + " in the import");
+            }
+        }
+        Set<Integer> warehouseIds = new HashSet<>();
+        Set<String> skus = new HashSet<>();
+        rows.keySet().forEach(key -> {
+            warehouseIds.add(key.warehouseId());
+            skus.add(key.sku());
+        });
+
+        List<Row> rejected = new ArrayList<>();
+        List<String> rejectionMessages = new ArrayList<>();
+        int[] written;
+        try {
+            written = transactionTemplate.execute(status -> {
+                Map<StockKey, InventoryResponse> existing = findExisting(warehouseIds, skus);
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                List<Object[]> inserts = new ArrayList<>();
+                List<Object[]> updates = new ArrayList<>();
+                Set<StockKey> changed = new HashSet<>();
+                for (Map.Entry<StockKey, Row> entry : rows.entrySet()) {
+                    InventoryRequest request = entry.getValue().request();
+                    InventoryResponse current = existing.get(entry.getKey());
+                    if (current == null) {
+                        inserts.add(new Object[] {request.getItemName(), request.getDescription(), request.getSku(),
+                                request.getQuantity(), request.getReorderPoint(), request.getReorderQuantity(),
+                                request.getUnitPrice(), request.getWarehouseId(), now, now});
+                        changed.add(entry.getKey());
+                    } else if (upsert) {
+                        updates.add(new Object[] {request.getItemName(), request.getDescription(), request.getQuantity(),
+                                request.getReorderPoint(), request.getReorderQuantity(), request.getUnitPrice(), now,
+                                current.getInventoryId()});
+                        changed.add(entry.getKey());
+                    } else {
+                        rejected.add(entry.getValue());
+                        rejectionMessages.add("Item with SKU " + request.getSku() + " already exists in warehouse "
+                                + current.getWarehouseName());
+                    }
+                }
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_INVENTORY_SQL, inserts);
+                }
+                if (!updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_INVENTORY_SQL, updates);
+                }
+                if (!changed.isEmpty()) {
+                    publishChanges(existing, findExisting(warehouseIds, skus), changed);
+                }
+                return new int[] {inserts.size(), updates.size()};
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Nothing of the chunk was kept
+            logger.error("Import chunk rolled back: {}", e.getMostSpecificCause().getMessage());
+            // Only the unique key means another writer created some of this chunk's stock in the meantime
+            String message = InventoryService.isDuplicateSkuViolation(e)
+                    ? "Conflicting concurrent write, rows of this chunk were not imported"
+                    : "The database rejected a row of this chunk, rows of this chunk were not imported";
+            rows.values().forEach(row -> summary.fail(row.number(), row.request().getSku(), message));
+            return;
+        }
+
+        summary.inserted += written[0];
+        summary.updated += written[1];
+        for (int i = 0; i < rejected.size(); i++) {
+            summary.fail(rejected.get(i).number(), rejected.get(i).request().getSku(), rejectionMessages.get(i));
+        }
+    }
+
+    private Map<StockKey, InventoryResponse> findExisting(Set<Integer> warehouseIds, Set<String> skus) {
+        Map<StockKey, InventoryResponse> existing = new HashMap<>();
+        for (InventoryResponse response : inventoryRepository.findInventoryResponsesBySkus(skus)) {
+            if (warehouseIds.contains(response.getWarehouseId())) {
+                existing.put(new StockKey(response.getWarehouseId(), response.getSku()), response);
+            }
+        }
+        return existing;
+    }
+
+    private void publishChanges(Map<StockKey, InventoryResponse> before, Map<StockKey, InventoryResponse> after,
+                                Set<StockKey> keys) {
+        for (StockKey key : keys) {
+            eventPublisher.publishEvent(new InventoryChangedEvent(before.get(key), after.get(key),
+                    InventoryMovement.MovementType.IMPORT));
+        }
+    }
+
+    private String validate(InventoryRequest request, Map<Integer, Boolean> knownWarehouses) {
+        if (request.getSku() == null || request.getSku().isBlank()) {
+            return "sku is required";
+        }
+        if (request.getItemName() == null || request.getItemName().isBlank()) {
+            return "itemName is required";
+        }
+        if (request.getItemName().length() > 100) {
+            return "itemName must be at most 100 characters";
+        }
+        if (request.getDescription() != null && request.getDescription().length() > 255) {
+            return "description must be at most 255 characters";
+        }
+        if (request.getQuantity() == null || request.getQuantity() < 0) {
+            return "quantity must be zero or more";
+        }
+        if (request.getReorderPoint() != null && request.getReorderPoint() < 0) {
+            return "reorderPoint must be zero or more";
+        }
+        if (request.getReorderQuantity() != null && request.getReorderQuantity() < 0) {
+            return "reorderQuantity must be zero or more";
+        }
+        if (request.getUnitPrice() != null && (request.getUnitPrice().stripTrailingZeros().scale() > UNIT_PRICE_SCALE
+                || request.getUnitPrice().abs().compareTo(UNIT_PRICE_LIMIT) >= 0)) {
+            return "unitPrice must be below 100000000 with at most 2 decimal places";
+        }
+        if (request.getWarehouseId() == null) {
+            return "warehouseId is required";
+        }
+        boolean warehouseExists = knownWarehouses.computeIfAbsent(request.getWarehouseId(),
+                id -> entityCache.findWarehouse(id) != null);
+        if (!warehouseExists) {
+            return "Warehouse not found with id: " + request.getWarehouseId();
+        }
+        return null;
+    }
+
+    private Map<String, Integer> readCsvHeader(BufferedReader reader) throws IOException {
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            throw new IllegalArgumentException("CSV import requires a header row");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        if (!columns.containsKey("sku") || !columns.containsKey("warehouseId")) {
+            throw new IllegalArgumentException("CSV header must contain at least the sku and warehouseId columns");
+        }
+        return columns;
+    }
+
+    private InventoryRequest toRequest(Map<String, Integer> columns, List<String> record) {
+        return InventoryRequest.builder()
+                .itemName(csvText(columns, record, "itemName"))
+                .description(csvText(columns, record, "description"))
+                .sku(csvText(columns, record, "sku"))
+                .quantity(csvInteger(columns, record, "quantity"))
+                .reorderPoint(csvInteger(columns, record, "reorderPoint"))
+                .reorderQuantity(csvInteger(columns, record, "reorderQuantity"))
+                .unitPrice(csvDecimal(columns, record, "unitPrice"))
+                .warehouseId(csvInteger(columns, record, "warehouseId"))
+                .build();
+    }
+
+    private String csvText(Map<String, Integer> columns, List<String> record, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    private Integer csvInteger(Map<String, Integer> columns, List<String> record, String column) {
+        String text = csvText(columns, record, column);
+        try {
+            return text == null ? null : Integer.valueOf(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a whole number: " + text);
+        }
+    }
+
+    private BigDecimal csvDecimal(Map<String, Integer> columns, List<String> record, String column) {
+        String text = csvText(columns, record, column);
+        try {
+            return text == null ? null : new BigDecimal(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + text);
+        }
+    }
+
+    /**
+     * Reads one RFC 4180 record: fields separated by commas, optionally quoted, with "" as an escaped
+     * quote inside quotes. Quoted fields may span lines. Returns null at the end of the input.
+     *
+     * A record longer than inventory.import.max-record-length characters, typically one with an
+     * unbalanced quote, is skipped up to the end of the current line and fails with
+     * IllegalArgumentException, so it cannot pull the rest of the input into memory.
+     */
+    private List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (true) {
+            if (++length > maxRecordLength) {
+                while (c != '\n' && c != -1) {
+                    c = reader.read();
+                }
+                throw new IllegalArgumentException("CSV record is longer than " + maxRecordLength + " characters");
+            }
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted CSV field");
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private boolean resolveMode(String mode) {
+        if (mode == null || mode.isBlank() || MODE_INSERT.equalsIgnoreCase(mode)) {
+            return false;
+        }
+        if (MODE_UPSERT.equalsIgnoreCase(mode)) {
+            return true;
+        }
+        throw new IllegalArgumentException("Invalid import mode. Valid values are: insert, upsert");
+    }
+}
@@ -0,0 +1,288 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.dto.InventoryHistoryResponse;
+import com.logistics.logistics.dto.InventoryMovementResponse;
+import com.logistics.logistics.dto.InventoryQuantityAtResponse;
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.model.InventoryMovement;
+import com.logistics.logistics.model.Inventory;
+import com.logistics.logistics.model.InventorySnapshot;
+import com.logistics.logistics.repository.InventoryMovementRepository;
+import com.logistics.logistics.repository.InventoryRepository;
+import com.logistics.logistics.repository.InventorySnapshotRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only stock ledger. Every {@link InventoryChangedEvent} that changes a quantity becomes one
+ * InventoryMovement row. Movements are buffered per transaction and written as one JDBC batch just
+ * before it commits, so they commit or roll back with the change itself and a bulk write adds one batched
+ * INSERT rather than one round trip per row. The persistence context is flushed first, so a movement is
+ * only inserted while its transaction already holds the lock on the changed Inventory row.
+ *
+ * Every inventory.ledger.snapshot-interval-ms the rows that moved since the previous snapshot are
+ * checkpointed, so rebuilding a past quantity replays at most one interval of movements. Sequence
+ * numbers are handed out before commit, so a committed sequence does not mean every lower one has
+ * committed. A checkpoint therefore never sums movements up to a global sequence: it takes a shared
+ * lock on each row, which waits for any transaction that has a movement of that row in flight, then
+ * stores the row's own quantity with its newest movement. A movement that commits late is only missed
+ * as a reason to checkpoint its row, never in the quantity.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryLedger {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedger.class);
+
+    private static final String INSERT_MOVEMENT_SQL = "INSERT INTO InventoryMovements (inventory_id, warehouse_id, " +
+            "sku, movement_type, quantity_delta, recorded_by, recorded_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SNAPSHOT_SQL = "INSERT INTO InventorySnapshots (inventory_id, movement_id, " +
+            "quantity, taken_at) VALUES (?, ?, ?, ?)";
+
+    // Rows that predate the ledger, or whose CREATE movement was never recorded, get their current stock
+    private static final String INSERT_OPENING_SQL = "INSERT INTO InventoryMovements (inventory_id, warehouse_id, " +
+            "sku, movement_type, quantity_delta, recorded_at) " +
+            "SELECT i.inventory_id, i.warehouse_id, i.sku, 'OPENING', i.quantity, ? FROM Inventory i " +
+            "WHERE NOT EXISTS (SELECT 1 FROM InventoryMovements m WHERE m.inventory_id = i.inventory_id)";
+
+    private static final int SNAPSHOT_CHUNK = 1000;
+
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final InventorySnapshotRepository inventorySnapshotRepository;
+    private final InventoryRepository inventoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.ledger.default-limit:100}")
+    private int defaultLimit;
+
+    @Value("${inventory.ledger.max-limit:1000}")
+    private int maxLimit;
+
+    // Runs inside the publishing transaction, unlike the after-commit listeners of the caches
+    @EventListener
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        InventoryMovement movement = toMovement(event);
+        if (movement == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            append(List.of(movement));
+            return;
+        }
+        pendingMovements().movements.add(movement);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int opened = jdbcTemplate.update(INSERT_OPENING_SQL, Timestamp.valueOf(LocalDateTime.now()));
+        if (opened > 0) {
+            logger.info("Recorded opening balances for {} inventory rows", opened);
+        }
+    }
+
+    public InventoryHistoryResponse getMovements(Integer inventoryId, Long after, Integer limit) {
+        int pageSize = limit == null ? defaultLimit : Math.min(Math.max(limit, 1), maxLimit);
+        long afterSequence = after == null ? 0 : after;
+        List<InventoryMovement> page = inventoryMovementRepository
+                .findByInventoryIdAndMovementIdGreaterThanOrderByMovementIdAsc(inventoryId, afterSequence,
+                        PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = page.size() > pageSize;
+        List<InventoryMovementResponse> movements = page.stream()
+                .limit(pageSize)
+                .map(InventoryLedger::mapToMovementResponse)
+                .toList();
+        return InventoryHistoryResponse.builder()
+                .inventoryId(inventoryId)
+                .movements(movements)
+                .nextAfter(movements.isEmpty() ? afterSequence : movements.get(movements.size() - 1).getSequence())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Rebuilds the quantity of a row as of {@code at} (now if null) from the newest snapshot at or
+     * before that point plus the movements recorded after it.
+     */
+    public InventoryQuantityAtResponse getQuantityAt(Integer inventoryId, LocalDateTime at) {
+        LocalDateTime pointInTime = at == null ? LocalDateTime.now() : at;
+        Long sequence = inventoryMovementRepository.findLastSequenceAt(inventoryId, pointInTime);
+        if (sequence == null) {
+            return InventoryQuantityAtResponse.builder()
+                    .inventoryId(inventoryId)
+                    .at(pointInTime)
+                    .quantity(0)
+                    .replayedMovements(0L)
+                    .build();
+        }
+
+        InventorySnapshot snapshot = inventorySnapshotRepository
+                .findFirstByInventoryIdAndMovementIdLessThanEqualOrderByMovementIdDesc(inventoryId, sequence)
+                .orElse(null);
+        long fromSequence = snapshot == null ? 0 : snapshot.getMovementId();
+        Object[] tail = inventoryMovementRepository.sumDeltas(inventoryId, fromSequence, sequence).get(0);
+        int base = snapshot == null ? 0 : snapshot.getQuantity();
+
+        return InventoryQuantityAtResponse.builder()
+                .inventoryId(inventoryId)
+                .at(pointInTime)
+                .quantity(base + ((Number) tail[0]).intValue())
+                .sequence(sequence)
+                .snapshotSequence(snapshot == null ? null : snapshot.getMovementId())
+                .replayedMovements(((Number) tail[1]).longValue())
+                .build();
+    }
+
+    /**
+     * Checkpoints every row with a movement after the newest snapshot. Each chunk of rows is its own
+     * transaction, so writers are held off for one chunk at a time.
+     */
+    public synchronized int snapshot() {
+        Long lastSnapshot = inventorySnapshotRepository.findLastSnapshotSequence();
+        List<Integer> moved = inventoryMovementRepository.findInventoryIdsMovedAfter(lastSnapshot == null ? 0 : lastSnapshot);
+        int written = 0;
+        for (int from = 0; from < moved.size(); from += SNAPSHOT_CHUNK) {
+            List<Integer> chunk = moved.subList(from, Math.min(from + SNAPSHOT_CHUNK, moved.size()));
+            written += transactionTemplate.execute(status -> snapshotChunk(chunk));
+        }
+        if (written > 0) {
+            logger.info("Snapshotted {} inventory rows", written);
+        }
+        return written;
+    }
+
+    private int snapshotChunk(List<Integer> inventoryIds) {
+        List<Inventory> locked = inventoryRepository.lockForSnapshot(inventoryIds);
+        // Read after the locks, so it sees every movement of these rows; none can be in flight now
+        Map<Integer, Long> lastSequences = inventoryMovementRepository.findLastSequences(inventoryIds).stream()
+                .collect(Collectors.toMap(row -> (Integer) row[0], row -> ((Number) row[1]).longValue()));
+        Timestamp takenAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(locked.size());
+        for (Inventory inventory : locked) {
+            Long sequence = lastSequences.get(inventory.getInventoryId());
+            if (sequence != null) {
+                rows.add(new Object[] {inventory.getInventoryId(), sequence, inventory.getQuantity(), takenAt});
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SNAPSHOT_SQL, rows);
+        }
+        return rows.size();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.ledger.snapshot-interval-ms:300000}",
+            initialDelayString = "${inventory.ledger.snapshot-interval-ms:300000}")
+    void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            logger.error("Inventory snapshot failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void append(List<InventoryMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        Timestamp recordedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(movements.size());
+        for (InventoryMovement movement : movements) {
+            rows.add(new Object[] {
+                    movement.getInventoryId(), movement.getWarehouseId(), movement.getSku(),
+                    movement.getMovementType().name(), movement.getQuantityDelta(), movement.getRecordedBy(), recordedAt
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT_SQL, rows);
+        meterRegistry.counter("inventory.ledger.movements").increment(movements.size());
+    }
+
+    // One buffer per transaction; registered as a synchronization so REQUIRES_NEW gets its own
+    private PendingMovements pendingMovements() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingMovements pending) {
+                return pending;
+            }
+        }
+        PendingMovements pending = new PendingMovements();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private final class PendingMovements implements TransactionSynchronization {
+        final List<InventoryMovement> movements = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (movements.isEmpty()) {
+                return;
+            }
+            // Writes the changes first, so their row locks are taken before the movements get sequences
+            if (entityManager.isJoinedToTransaction()) {
+                entityManager.flush();
+            }
+            append(movements);
+        }
+    }
+
+    private static InventoryMovement toMovement(InventoryChangedEvent event) {
+        InventoryResponse before = event.before();
+        InventoryResponse after = event.after();
+        int delta = (after == null ? 0 : after.getQuantity()) - (before == null ? 0 : before.getQuantity());
+        // Edits that leave the quantity alone are not stock movements; creations and deletions always are
+        if (delta == 0 && before != null && after != null) {
+            return null;
+        }
+        InventoryResponse row = after != null ? after : before;
+        return InventoryMovement.builder()
+                .inventoryId(row.getInventoryId())
+                .warehouseId(row.getWarehouseId())
+                .sku(row.getSku())
+                .movementType(event.movementType())
+                .quantityDelta(delta)
+                .recordedBy(currentUsername())
+                .build();
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+
+    private static InventoryMovementResponse mapToMovementResponse(InventoryMovement movement) {
+        return InventoryMovementResponse.builder()
+                .sequence(movement.getMovementId())
+                .inventoryId(movement.getInventoryId())
+                .warehouseId(movement.getWarehouseId())
+                .sku(movement.getSku())
+                .movementType(movement.getMovementType().name())
+                .quantityDelta(movement.getQuantityDelta())
+                .recordedBy(movement.getRecordedBy())
+                .recordedAt(movement.getRecordedAt())
+                .build();
+    }
+}
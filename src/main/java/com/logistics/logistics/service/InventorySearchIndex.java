@@ -0,0 +1,253 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process search index over inventory item names and SKUs.
+ * <p>
+ * Queries of three or more characters are answered from a trigram index: the posting lists of the
+ * query's trigrams are intersected, rarest first, and each candidate is verified with a real substring
+ * match. Shorter
+ * queries use a sorted token map (a trie equivalent) for prefix matches on name words and SKUs.
+ * Results are ranked so exact and prefix SKU matches come first, then name prefix, word prefix and
+ * plain substring matches.
+ * <p>
+ * Change events are applied after commit and may arrive out of order; one older than the last event
+ * applied to its row is ignored.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventorySearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(InventorySearchIndex.class);
+    
+    private static final int GRAM = 3;
+    
+    private final InventoryRepository inventoryRepository;
+    
+    private final Map<Integer, Document> documents = new ConcurrentHashMap<>();
+    private final Map<String, Set<Integer>> postingsByTrigram = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Set<Integer>> postingsByToken = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Long> appliedVersions = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void seed() {
+        logger.info("Building inventory search index");
+        documents.clear();
+        postingsByTrigram.clear();
+        postingsByToken.clear();
+        appliedVersions.clear();
+        
+        List<InventoryResponse> items = inventoryRepository.findAllInventoryResponses();
+        items.forEach(item -> {
+            InventoryChangedEvent.recordVersion(appliedVersions, item.getInventoryId(), item.getVersion());
+            add(item);
+        });
+        ready = true;
+        logger.info("Inventory search index built with {} items and {} trigrams", items.size(), postingsByTrigram.size());
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onInventoryChanged(InventoryChangedEvent event) {
+        if (InventoryChangedEvent.isStale(event, appliedVersions)) {
+            return;
+        }
+        remove(event.inventoryId());
+        if (event.after() != null) {
+            add(event.after());
+        }
+    }
+    
+    /**
+     * Returns up to {@code limit} best matches for the query, optionally restricted to one warehouse.
+     */
+    public List<InventoryResponse> search(String query, Integer warehouseId, int limit) {
+        String needle = normalize(query);
+        if (needle.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        Collection<Integer> candidates = needle.length() >= GRAM
+                ? trigramCandidates(needle, limit)
+                : prefixCandidates(needle);
+        
+        // Min-heap on rank keeps only the best `limit` hits
+        PriorityQueue<Hit> best = new PriorityQueue<>(Hit.BY_RANK);
+        for (Integer inventoryId : candidates) {
+            Document document = documents.get(inventoryId);
+            if (document == null || (warehouseId != null && !warehouseId.equals(document.item().getWarehouseId()))) {
+                continue;
+            }
+            int score = document.score(needle);
+            if (score == 0) {
+                continue;
+            }
+            best.offer(new Hit(document, score));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Hit.BY_RANK.reversed());
+        List<InventoryResponse> results = new ArrayList<>(hits.size());
+        hits.forEach(hit -> results.add(hit.document().item()));
+        return results;
+    }
+    
+    // Stops intersecting once at most `limit` candidates are left; verifying those is cheaper than more lookups
+    private Collection<Integer> trigramCandidates(String needle, int limit) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            trigrams.add(needle.substring(i, i + GRAM));
+        }
+        List<Set<Integer>> postingLists = new ArrayList<>(trigrams.size());
+        for (String trigram : trigrams) {
+            Set<Integer> postings = postingsByTrigram.get(trigram);
+            if (postings == null) {
+                return Collections.emptyList();
+            }
+            postingLists.add(postings);
+        }
+        postingLists.sort(Comparator.comparingInt(Set::size));
+        
+        // retainAll walks the copy and probes the larger list, so each step costs the candidates left
+        Set<Integer> candidates = new HashSet<>(postingLists.get(0));
+        for (int i = 1; i < postingLists.size() && candidates.size() > limit; i++) {
+            candidates.retainAll(postingLists.get(i));
+        }
+        return candidates;
+    }
+    
+    private Collection<Integer> prefixCandidates(String needle) {
+        Set<Integer> candidates = new HashSet<>();
+        for (Set<Integer> postings : postingsByToken.subMap(needle, true, needle + Character.MAX_VALUE, false).values()) {
+            candidates.addAll(postings);
+        }
+        return candidates;
+    }
+    
+    private void add(InventoryResponse item) {
+        Document document = Document.of(item);
+        documents.put(item.getInventoryId(), document);
+        for (String trigram : document.trigrams()) {
+            postingsByTrigram.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet()).add(item.getInventoryId());
+        }
+        for (String token : document.tokens()) {
+            postingsByToken.computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet()).add(item.getInventoryId());
+        }
+    }
+    
+    private void remove(Integer inventoryId) {
+        Document document = documents.remove(inventoryId);
+        if (document == null) {
+            return;
+        }
+        for (String trigram : document.trigrams()) {
+            removePosting(postingsByTrigram, trigram, inventoryId);
+        }
+        for (String token : document.tokens()) {
+            removePosting(postingsByToken, token, inventoryId);
+        }
+    }
+    
+    private static void removePosting(Map<String, Set<Integer>> postings, String key, Integer inventoryId) {
+        postings.computeIfPresent(key, (k, ids) -> {
+            ids.remove(inventoryId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+    
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private record Document(InventoryResponse item, String name, String sku) {
+        
+        static Document of(InventoryResponse item) {
+            return new Document(item, normalize(item.getItemName()), normalize(item.getSku()));
+        }
+        
+        Set<String> trigrams() {
+            Set<String> trigrams = new HashSet<>();
+            addTrigrams(trigrams, name);
+            addTrigrams(trigrams, sku);
+            return trigrams;
+        }
+        
+        Set<String> tokens() {
+            Set<String> tokens = new HashSet<>();
+            for (String word : name.split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) {
+                    tokens.add(word);
+                }
+            }
+            if (!sku.isEmpty()) {
+                tokens.add(sku);
+            }
+            return tokens;
+        }
+        
+        int score(String needle) {
+            if (sku.equals(needle)) {
+                return 100;
+            }
+            if (sku.startsWith(needle)) {
+                return 80;
+            }
+            if (name.startsWith(needle)) {
+                return 60;
+            }
+            int inName = name.indexOf(needle);
+            if (inName > 0 && !Character.isLetterOrDigit(name.charAt(inName - 1))) {
+                return 40;
+            }
+            if (sku.contains(needle)) {
+                return 30;
+            }
+            if (inName >= 0) {
+                return 20;
+            }
+            return 0;
+        }
+        
+        private static void addTrigrams(Set<String> trigrams, String text) {
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                trigrams.add(text.substring(i, i + GRAM));
+            }
+        }
+    }
+    
+    private record Hit(Document document, int score) {
+        // Higher score wins, then the shorter name, then the lower id
+        static final Comparator<Hit> BY_RANK = Comparator.comparingInt(Hit::score)
+                .thenComparing(hit -> -hit.document().name().length())
+                .thenComparing(hit -> -hit.document().item().getInventoryId());
+    }
+}
@@ -1,69 +1,176 @@
 package com.logistics.logistics.service;
 
+import com.logistics.logistics.dto.InventoryPageResponse;
 import com.logistics.logistics.dto.InventoryRequest;
 import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.dto.TransferResponse;
 import com.logistics.logistics.model.Inventory;
+import com.logistics.logistics.model.InventoryDeletion;
+import com.logistics.logistics.model.InventoryMovement;
 import com.logistics.logistics.model.InventoryTransfer;
 import com.logistics.logistics.model.User;
 import com.logistics.logistics.model.Warehouse;
+import com.logistics.logistics.repository.InventoryDeletionRepository;
 import com.logistics.logistics.repository.InventoryRepository;
 import com.logistics.logistics.repository.InventoryTransferRepository;
 import com.logistics.logistics.repository.UserRepository;
-import com.logistics.logistics.repository.WarehouseRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class InventoryService {
     private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
     
+    private static final List<InventoryTransfer.TransferStatus> UNFINISHED_TRANSFER_STATUSES =
+            List.of(InventoryTransfer.TransferStatus.PENDING, InventoryTransfer.TransferStatus.IN_TRANSIT);
+    
     private final InventoryRepository inventoryRepository;
-    private final WarehouseRepository warehouseRepository;
+    private final InventoryDeletionRepository inventoryDeletionRepository;
+    private final EntityCache entityCache;
     private final InventoryTransferRepository inventoryTransferRepository;
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final LowStockIndex lowStockIndex;
+    private final InventorySearchIndex inventorySearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OptimisticRetry optimisticRetry;
+    private final TransferCoordinator transferCoordinator;
+    
+    public static final String EXPORT_FORMAT_NDJSON = "ndjson";
+    public static final String EXPORT_FORMAT_CSV = "csv";
+    
+    private static final String CSV_HEADER = "inventoryId,itemName,description,sku,quantity,reorderPoint," +
+            "reorderQuantity,unitPrice,warehouseId,warehouseName,updatedAt,needsRestock";
+    
+    private static final String UNIQUE_SKU_CONSTRAINT = "uk_inventory_warehouse_sku";
+    
+    private static final String SORT_ID = "id";
+    private static final String SORT_ITEM_NAME = "itemName";
+    private static final String SORT_SKU = "sku";
+    
+    @Value("${inventory.page.default-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${inventory.page.max-size:500}")
+    private int maxPageSize;
+    
+    @Value("${inventory.search.default-limit:20}")
+    private int defaultSearchLimit;
+    
+    @Value("${inventory.search.max-limit:100}")
+    private int maxSearchLimit;
+    
+    @Value("${inventory.export.clear-interval:1000}")
+    private int exportClearInterval;
     
     public List<InventoryResponse> getAllInventory() {
         logger.info("Fetching all inventory items");
-        return inventoryRepository.findAll().stream()
-                .map(this::mapToInventoryResponse)
-                .collect(Collectors.toList());
+        return inventoryRepository.findAllInventoryResponses();
+    }
+    
+    public InventoryPageResponse getInventoryPage(String cursor, Integer size, String sort) {
+        logger.info("Fetching inventory page, sort: {}, size: {}", sort, size);
+        return fetchInventoryPage(null, cursor, size, sort);
+    }
+    
+    public InventoryPageResponse getInventoryPageByWarehouse(Integer warehouseId, String cursor, Integer size, String sort) {
+        logger.info("Fetching inventory page for warehouse id: {}, sort: {}, size: {}", warehouseId, sort, size);
+        requireWarehouseExists(warehouseId);
+        return fetchInventoryPage(warehouseId, cursor, size, sort);
+    }
+    
+    /**
+     * Writes every inventory row to the given stream as NDJSON or CSV while the rows are read
+     * from an open cursor. The persistence context is cleared periodically so memory use does
+     * not grow with the size of the table.
+     */
+    @Transactional(readOnly = true, timeoutString = "${inventory.export.transaction-timeout-s:600}")
+    public void exportInventory(OutputStream outputStream, String format) throws IOException {
+        logger.info("Exporting inventory as {}", format);
+        boolean csv = EXPORT_FORMAT_CSV.equals(format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        long count = 0;
+        
+        if (csv) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        
+        try (Stream<Inventory> rows = inventoryRepository.streamAllForExport()) {
+            Iterator<Inventory> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                InventoryResponse response = mapToInventoryResponse(iterator.next());
+                if (csv) {
+                    writeCsvRow(writer, response);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(response));
+                    writer.write('\n');
+                }
+                
+                if (++count % exportClearInterval == 0) {
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+        
+        writer.flush();
+        logger.info("Inventory export finished, {} rows written", count);
     }
     
     public InventoryResponse getInventoryById(Integer id) {
         logger.info("Fetching inventory with id: {}", id);
-        Inventory inventory = inventoryRepository.findById(id)
-                .orElseThrow(() -> {
-                    logger.error("Inventory not found with id: {}", id);
-                    return new IllegalArgumentException("Inventory not found with id: " + id);
-                });
-        return mapToInventoryResponse(inventory);
+        return entityCache.findInventory(id, () -> {
+            Inventory inventory = inventoryRepository.findById(id)
+                    .orElseThrow(() -> {
+                        logger.error("Inventory not found with id: {}", id);
+                        return new IllegalArgumentException("Inventory not found with id: " + id);
+                    });
+            return mapToInventoryResponse(inventory);
+        });
     }
     
     public List<InventoryResponse> getInventoryByWarehouse(Integer warehouseId) {
         logger.info("Fetching inventory for warehouse id: {}", warehouseId);
-        Warehouse warehouse = warehouseRepository.findById(warehouseId)
-                .orElseThrow(() -> {
-                    logger.error("Warehouse not found with id: {}", warehouseId);
-                    return new IllegalArgumentException("Warehouse not found with id: " + warehouseId);
-                });
-        
-        return inventoryRepository.findByWarehouse(warehouse).stream()
-                .map(this::mapToInventoryResponse)
-                .collect(Collectors.toList());
+        requireWarehouseExists(warehouseId);
+        return inventoryRepository.findInventoryResponsesByWarehouseId(warehouseId);
     }
     
+    // One transaction, so the row and its CREATE movement in the ledger commit together
+    @Transactional
     public InventoryResponse createInventory(InventoryRequest request) {
         logger.info("Creating new inventory item: {}", request.getItemName());
         
-        Warehouse warehouse = warehouseRepository.findById(request.getWarehouseId())
+        Warehouse warehouse = Optional.ofNullable(entityCache.findWarehouse(request.getWarehouseId()))
+                .map(EntityCache.CachedWarehouse::toReference)
                 .orElseThrow(() -> {
                     logger.error("Warehouse not found with id: {}", request.getWarehouseId());
                     return new IllegalArgumentException("Warehouse not found with id: " + request.getWarehouseId());
@@ -87,22 +194,41 @@ public class InventoryService {
                 .warehouse(warehouse)
                 .build();
         
-        Inventory savedInventory = inventoryRepository.save(inventory);
+        Inventory savedInventory = saveUniqueSku(inventory);
         logger.info("Inventory item created successfully with id: {}", savedInventory.getInventoryId());
         
-        return mapToInventoryResponse(savedInventory);
+        InventoryResponse response = mapToInventoryResponse(savedInventory);
+        publishChange(null, response, InventoryMovement.MovementType.CREATE);
+        return response;
     }
     
+    /**
+     * Replaces every field of the item, including the absolute quantity, so it is only applied on top of
+     * the version the client read. A mismatch fails with a ConcurrencyFailureException (409) instead of
+     * being retried, because a replay would write the same stale values again.
+     */
+    @Transactional
     public InventoryResponse updateInventory(Integer id, InventoryRequest request) {
         logger.info("Updating inventory with id: {}", id);
+        if (request.getVersion() == null) {
+            throw new IllegalArgumentException("version is required to update an inventory item");
+        }
         
         Inventory inventory = inventoryRepository.findById(id)
                 .orElseThrow(() -> {
                     logger.error("Inventory not found with id: {}", id);
                     return new IllegalArgumentException("Inventory not found with id: " + id);
                 });
+        // A change committed after this read is caught by the @Version check when the update is flushed
+        if (!request.getVersion().equals(inventory.getVersion())) {
+            logger.warn("Stale update of inventory {}: client has version {}, current is {}",
+                    id, request.getVersion(), inventory.getVersion());
+            throw new ObjectOptimisticLockingFailureException(Inventory.class, id);
+        }
+        InventoryResponse before = mapToInventoryResponse(inventory);
         
-        Warehouse warehouse = warehouseRepository.findById(request.getWarehouseId())
+        Warehouse warehouse = Optional.ofNullable(entityCache.findWarehouse(request.getWarehouseId()))
+                .map(EntityCache.CachedWarehouse::toReference)
                 .orElseThrow(() -> {
                     logger.error("Warehouse not found with id: {}", request.getWarehouseId());
                     return new IllegalArgumentException("Warehouse not found with id: " + request.getWarehouseId());
@@ -126,15 +252,20 @@ public class InventoryService {
         inventory.setUnitPrice(request.getUnitPrice());
         inventory.setWarehouse(warehouse);
         
-        Inventory updatedInventory = inventoryRepository.save(inventory);
+        Inventory updatedInventory = saveUniqueSku(inventory);
         logger.info("Inventory updated successfully: {}", updatedInventory.getInventoryId());
         
-        return mapToInventoryResponse(updatedInventory);
+        InventoryResponse response = mapToInventoryResponse(updatedInventory);
+        publishChange(before, response, InventoryMovement.MovementType.UPDATE);
+        return response;
     }
     
     public void deleteInventory(Integer id) {
         logger.info("Deleting inventory with id: {}", id);
-        
+        optimisticRetry.execute("deleteInventory", () -> applyDelete(id));
+    }
+    
+    private void applyDelete(Integer id) {
         Inventory inventory = inventoryRepository.findById(id)
                 .orElseThrow(() -> {
                     logger.error("Inventory not found with id: {}", id);
@@ -142,59 +273,161 @@ public class InventoryService {
                 });
         
         inventoryRepository.delete(inventory);
+        inventoryDeletionRepository.save(InventoryDeletion.builder()
+                .inventoryId(inventory.getInventoryId())
+                .warehouseId(inventory.getWarehouse().getWarehouseId())
+                .sku(inventory.getSku())
+                .build());
+        publishChange(mapToInventoryResponse(inventory), null, InventoryMovement.MovementType.DELETE);
         logger.info("Inventory deleted successfully: {}", id);
     }
     
+    // A single conditional UPDATE, so concurrent adjustments to the same row can never lose a delta
     @Transactional
     public InventoryResponse updateInventoryQuantity(Integer id, Integer quantityChange) {
         logger.info("Updating inventory quantity for id: {}, change: {}", id, quantityChange);
         
-        Inventory inventory = inventoryRepository.findById(id)
-                .orElseThrow(() -> {
-                    logger.error("Inventory not found with id: {}", id);
-                    return new IllegalArgumentException("Inventory not found with id: " + id);
-                });
-        
-        int newQuantity = inventory.getQuantity() + quantityChange;
-        if (newQuantity < 0) {
-            logger.error("Cannot reduce inventory below zero. Current: {}, Change: {}", inventory.getQuantity(), quantityChange);
+        int updated = inventoryRepository.adjustQuantity(id, quantityChange, LocalDateTime.now());
+        if (updated == 0) {
+            if (!inventoryRepository.existsById(id)) {
+                logger.error("Inventory not found with id: {}", id);
+                throw new IllegalArgumentException("Inventory not found with id: " + id);
+            }
+            logger.error("Cannot reduce inventory below zero. Id: {}, Change: {}", id, quantityChange);
             throw new IllegalArgumentException("Cannot reduce inventory below zero");
         }
         
-        inventory.setQuantity(newQuantity);
-        Inventory updatedInventory = inventoryRepository.save(inventory);
-        logger.info("Inventory quantity updated successfully: {}, new quantity: {}", id, newQuantity);
+        // The row stays locked by the UPDATE until commit, so this read sees exactly our change
+        InventoryResponse response = inventoryRepository.findInventoryResponseById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Inventory not found with id: " + id));
+        logger.info("Inventory quantity updated successfully: {}, new quantity: {}", id, response.getQuantity());
         
-        return mapToInventoryResponse(updatedInventory);
+        int previousQuantity = response.getQuantity() - quantityChange;
+        InventoryResponse before = response.toBuilder()
+                .quantity(previousQuantity)
+                .needsRestock(response.getReorderPoint() != null && previousQuantity <= response.getReorderPoint())
+                .build();
+        publishChange(before, response, InventoryMovement.MovementType.ADJUSTMENT);
+        return response;
+    }
+    
+    public List<InventoryResponse> searchInventory(String query, Integer warehouseId, Integer limit) {
+        logger.info("Searching inventory for: {}, warehouse id: {}", query, warehouseId);
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        if (warehouseId != null) {
+            requireWarehouseExists(warehouseId);
+        }
+        
+        int topK = limit == null ? defaultSearchLimit : Math.min(Math.max(limit, 1), maxSearchLimit);
+        if (inventorySearchIndex.isReady()) {
+            return inventorySearchIndex.search(query, warehouseId, topK);
+        }
+        return inventoryRepository.searchInventoryResponses(query.trim(), warehouseId, PageRequest.of(0, topK));
     }
     
     public List<InventoryResponse> getItemsBelowReorderPoint() {
         logger.info("Fetching items below reorder point");
-        return inventoryRepository.findItemsBelowReorderPoint().stream()
-                .map(this::mapToInventoryResponse)
-                .collect(Collectors.toList());
+        if (lowStockIndex.isReady()) {
+            return lowStockIndex.findAll();
+        }
+        return inventoryRepository.findInventoryResponsesBelowReorderPoint();
     }
     
     public List<InventoryResponse> getItemsBelowReorderPointByWarehouse(Integer warehouseId) {
         logger.info("Fetching items below reorder point for warehouse id: {}", warehouseId);
-        
-        Warehouse warehouse = warehouseRepository.findById(warehouseId)
+        requireWarehouseExists(warehouseId);
+        if (lowStockIndex.isReady()) {
+            return lowStockIndex.findByWarehouse(warehouseId);
+        }
+        return inventoryRepository.findInventoryResponsesBelowReorderPointByWarehouseId(warehouseId);
+    }
+    
+    // Validates and records the transfer as PENDING; TransferPipeline moves the stock later
+    public TransferResponse createPendingTransfer(Integer sourceInventoryId, Integer destinationWarehouseId,
+                                                  Integer quantity, String username) {
+        User initiatedBy = userRepository.findByUsername(username)
+                .orElseThrow(() -> {
+                    logger.error("User not found with username: {}", username);
+                    return new IllegalArgumentException("User not found with username: " + username);
+                });
+        return mapToTransferResponse(savePendingTransfer(sourceInventoryId, destinationWarehouseId, quantity, initiatedBy));
+    }
+    
+    // Synchronous variant: records the transfer and executes it on the calling thread
+    public TransferResponse transferInventory(Integer sourceInventoryId, Integer destinationWarehouseId, Integer quantity, Integer userId) {
+        User initiatedBy = userRepository.findById(userId)
+                .orElseThrow(() -> {
+                    logger.error("User not found with id: {}", userId);
+                    return new IllegalArgumentException("User not found with id: " + userId);
+                });
+        InventoryTransfer pending = savePendingTransfer(sourceInventoryId, destinationWarehouseId, quantity, initiatedBy);
+        TransferResponse result;
+        try {
+            result = executeTransfer(pending.getTransferId());
+        } catch (ConcurrencyFailureException e) {
+            // The caller gets a 409 and may retry, so this attempt must not run later as well
+            cancelTransfer(pending.getTransferId(), e.getMessage());
+            throw e;
+        }
+        if (InventoryTransfer.TransferStatus.CANCELLED.name().equals(result.getStatus())) {
+            throw new IllegalArgumentException(result.getFailureReason());
+        }
+        return result;
+    }
+    
+    public TransferResponse getTransferById(Integer transferId) {
+        return inventoryTransferRepository.findById(transferId)
+                .map(this::mapToTransferResponse)
                 .orElseThrow(() -> {
-                    logger.error("Warehouse not found with id: {}", warehouseId);
-                    return new IllegalArgumentException("Warehouse not found with id: " + warehouseId);
+                    logger.error("Transfer not found with id: {}", transferId);
+                    return new IllegalArgumentException("Transfer not found with id: " + transferId);
                 });
+    }
+    
+    /**
+     * Moves the stock for a recorded transfer. The transfer is marked IN_TRANSIT first so pollers can
+     * see it being worked on; the stock movement and COMPLETED commit together, so a crash in between
+     * leaves an IN_TRANSIT row that is safe to execute again. Business failures end as CANCELLED.
+     * Contention (a stripe or lock-wait timeout, exhausted retries) and interrupts are thrown as
+     * {@link ConcurrencyFailureException} and leave the transfer unfinished, so it can be run again.
+     */
+    public TransferResponse executeTransfer(Integer transferId) {
+        InventoryTransfer transfer = inventoryTransferRepository.findById(transferId)
+                .orElseThrow(() -> new IllegalArgumentException("Transfer not found with id: " + transferId));
+        if (transfer.getStatus() == InventoryTransfer.TransferStatus.COMPLETED
+                || transfer.getStatus() == InventoryTransfer.TransferStatus.CANCELLED) {
+            return mapToTransferResponse(transfer);
+        }
         
-        return inventoryRepository.findItemsBelowReorderPointByWarehouse(warehouse).stream()
-                .map(this::mapToInventoryResponse)
-                .collect(Collectors.toList());
+        logger.info("Executing transfer {}: item {}, to warehouse {}, quantity {}", transferId,
+                transfer.getInventory().getInventoryId(), transfer.getDestinationWarehouse().getWarehouseId(), transfer.getQuantity());
+        inventoryTransferRepository.changeStatus(transferId, List.of(InventoryTransfer.TransferStatus.PENDING),
+                InventoryTransfer.TransferStatus.IN_TRANSIT, null, null);
+        
+        String sku = transfer.getInventory().getSku();
+        Integer sourceWarehouseId = transfer.getSourceWarehouse().getWarehouseId();
+        Integer destinationWarehouseId = transfer.getDestinationWarehouse().getWarehouseId();
+        List<TransferCoordinator.StockKey> stock = List.of(
+                new TransferCoordinator.StockKey(sku, sourceWarehouseId),
+                new TransferCoordinator.StockKey(sku, destinationWarehouseId));
+        try {
+            transferCoordinator.execute(stock, () -> optimisticRetry.execute("transferInventory",
+                    () -> applyTransfer(transferId, sku, sourceWarehouseId, destinationWarehouseId)));
+        } catch (IllegalArgumentException e) {
+            logger.error("Transfer {} cancelled: {}", transferId, e.getMessage());
+            cancelTransfer(transferId, e.getMessage());
+        }
+        return getTransferById(transferId);
     }
     
-    @Transactional
-    public void transferInventory(Integer sourceInventoryId, Integer destinationWarehouseId, Integer quantity, Integer userId) {
-        logger.info("Transferring inventory: from item {}, to warehouse {}, quantity {}", 
+    private InventoryTransfer savePendingTransfer(Integer sourceInventoryId, Integer destinationWarehouseId,
+                                                  Integer quantity, User initiatedBy) {
+        logger.info("Recording transfer: from item {}, to warehouse {}, quantity {}", 
                 sourceInventoryId, destinationWarehouseId, quantity);
         
-        if (quantity <= 0) {
+        if (quantity == null || quantity <= 0) {
             logger.error("Transfer quantity must be positive: {}", quantity);
             throw new IllegalArgumentException("Transfer quantity must be positive");
         }
@@ -205,49 +438,77 @@ public class InventoryService {
                     return new IllegalArgumentException("Source inventory not found with id: " + sourceInventoryId);
                 });
         
-        if (sourceInventory.getQuantity() < quantity) {
-            logger.error("Insufficient quantity for transfer. Available: {}, Requested: {}", 
-                    sourceInventory.getQuantity(), quantity);
-            throw new IllegalArgumentException("Insufficient quantity for transfer");
-        }
-        
-        Warehouse sourceWarehouse = sourceInventory.getWarehouse();
-        Warehouse destinationWarehouse = warehouseRepository.findById(destinationWarehouseId)
+        Warehouse destinationWarehouse = Optional.ofNullable(entityCache.findWarehouse(destinationWarehouseId))
+                .map(EntityCache.CachedWarehouse::toReference)
                 .orElseThrow(() -> {
                     logger.error("Destination warehouse not found with id: {}", destinationWarehouseId);
                     return new IllegalArgumentException("Destination warehouse not found with id: " + destinationWarehouseId);
                 });
         
-        User initiatedBy = userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    logger.error("User not found with id: {}", userId);
-                    return new IllegalArgumentException("User not found with id: " + userId);
-                });
-        
-        // Create transfer record
-        InventoryTransfer transfer = InventoryTransfer.builder()
-                .sourceWarehouse(sourceWarehouse)
+        return inventoryTransferRepository.save(InventoryTransfer.builder()
+                .sourceWarehouse(sourceInventory.getWarehouse())
                 .destinationWarehouse(destinationWarehouse)
                 .inventory(sourceInventory)
                 .quantity(quantity)
-                .status(InventoryTransfer.TransferStatus.IN_TRANSIT)
+                .status(InventoryTransfer.TransferStatus.PENDING)
                 .initiatedBy(initiatedBy)
-                .build();
+                .build());
+    }
+    
+    // Marks an unfinished transfer CANCELLED; one that completed meanwhile keeps its status
+    public void cancelTransfer(Integer transferId, String reason) {
+        inventoryTransferRepository.changeStatus(transferId, UNFINISHED_TRANSFER_STATUSES,
+                InventoryTransfer.TransferStatus.CANCELLED, truncateReason(reason), LocalDateTime.now());
+    }
+    
+    // Runs inside OptimisticRetry's transaction while TransferCoordinator holds both stock stripes
+    private void applyTransfer(Integer transferId, String sku, Integer sourceWarehouseId, Integer destinationWarehouseId) {
+        // Claimed first, under the stripes and the transfer's row lock; a rollback below releases the claim
+        int claimed = inventoryTransferRepository.changeStatus(transferId, UNFINISHED_TRANSFER_STATUSES,
+                InventoryTransfer.TransferStatus.COMPLETED, null, LocalDateTime.now());
+        if (claimed == 0) {
+            logger.info("Transfer {} was already completed or cancelled, not moving stock again", transferId);
+            return;
+        }
         
-        inventoryTransferRepository.save(transfer);
+        InventoryTransfer transfer = inventoryTransferRepository.findById(transferId)
+                .orElseThrow(() -> new IllegalArgumentException("Transfer not found with id: " + transferId));
+        Integer sourceInventoryId = transfer.getInventory().getInventoryId();
+        Integer quantity = transfer.getQuantity();
+        
+        List<Inventory> locked = inventoryRepository.lockBySkuAndWarehouseIds(sku,
+                List.of(sourceWarehouseId, destinationWarehouseId));
+        Inventory sourceInventory = locked.stream()
+                .filter(item -> item.getInventoryId().equals(sourceInventoryId))
+                .findFirst()
+                .orElseThrow(() -> {
+                    logger.error("Source inventory {} was changed or removed before the transfer ran", sourceInventoryId);
+                    return new IllegalArgumentException("Source inventory was modified before the transfer ran");
+                });
+        Inventory destinationInventory = locked.stream()
+                .filter(item -> item.getWarehouse().getWarehouseId().equals(destinationWarehouseId))
+                .findFirst()
+                .orElse(null);
+        
+        if (sourceInventory.getQuantity() < quantity) {
+            logger.error("Insufficient quantity for transfer. Available: {}, Requested: {}", 
+                    sourceInventory.getQuantity(), quantity);
+            throw new IllegalArgumentException("Insufficient quantity for transfer");
+        }
         
         // Reduce quantity from source
+        InventoryResponse sourceBefore = mapToInventoryResponse(sourceInventory);
         sourceInventory.setQuantity(sourceInventory.getQuantity() - quantity);
-        inventoryRepository.save(sourceInventory);
-        
-        // Check if same item exists in destination warehouse
-        Inventory destinationInventory = inventoryRepository.findBySkuAndWarehouse(sourceInventory.getSku(), destinationWarehouse)
-                .orElse(null);
+        // Flushed so the published snapshots carry the versions the rows are written with
+        publishChange(sourceBefore, mapToInventoryResponse(inventoryRepository.saveAndFlush(sourceInventory)),
+                InventoryMovement.MovementType.TRANSFER);
         
         if (destinationInventory != null) {
             // Update existing inventory in destination
+            InventoryResponse destinationBefore = mapToInventoryResponse(destinationInventory);
             destinationInventory.setQuantity(destinationInventory.getQuantity() + quantity);
-            inventoryRepository.save(destinationInventory);
+            publishChange(destinationBefore, mapToInventoryResponse(inventoryRepository.saveAndFlush(destinationInventory)),
+                    InventoryMovement.MovementType.TRANSFER);
         } else {
             // Create new inventory item in destination
             Inventory newInventory = Inventory.builder()
@@ -258,22 +519,213 @@ public class InventoryService {
                     .reorderPoint(sourceInventory.getReorderPoint())
                     .reorderQuantity(sourceInventory.getReorderQuantity())
                     .unitPrice(sourceInventory.getUnitPrice())
-                    .warehouse(destinationWarehouse)
+                    .warehouse(transfer.getDestinationWarehouse())
                     .build();
             
-            inventoryRepository.save(newInventory);
+            publishChange(null, mapToInventoryResponse(inventoryRepository.saveAndFlush(newInventory)),
+                    InventoryMovement.MovementType.TRANSFER);
+        }
+        
+        logger.info("Inventory transfer {} completed successfully", transferId);
+    }
+    
+    // failure_reason is a VARCHAR(255)
+    private static String truncateReason(String reason) {
+        return reason != null && reason.length() > 255 ? reason.substring(0, 255) : reason;
+    }
+    
+    private TransferResponse mapToTransferResponse(InventoryTransfer transfer) {
+        return TransferResponse.builder()
+                .transferId(transfer.getTransferId())
+                .sourceInventoryId(transfer.getInventory().getInventoryId())
+                .sourceWarehouseId(transfer.getSourceWarehouse().getWarehouseId())
+                .destinationWarehouseId(transfer.getDestinationWarehouse().getWarehouseId())
+                .quantity(transfer.getQuantity())
+                .status(transfer.getStatus().name())
+                .failureReason(transfer.getFailureReason())
+                .initiatedAt(transfer.getInitiatedAt())
+                .completedAt(transfer.getCompletedAt())
+                .build();
+    }
+    
+    private InventoryPageResponse fetchInventoryPage(Integer warehouseId, String cursor, Integer size, String sort) {
+        String sortKey = resolveSortKey(sort);
+        int pageSize = resolvePageSize(size);
+        KeysetCursor position = cursor == null || cursor.isBlank()
+                ? KeysetCursor.start(sortKey)
+                : KeysetCursor.decode(cursor, sortKey);
+        
+        // Ask for one extra row so we know whether another page exists without a count query
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<InventoryResponse> rows = switch (sortKey) {
+            case SORT_ITEM_NAME -> warehouseId == null
+                    ? inventoryRepository.findPageOrderByItemNameAfter(position.lastKey(), position.afterId(), limit)
+                    : inventoryRepository.findPageByWarehouseOrderByItemNameAfter(warehouseId, position.lastKey(), position.afterId(), limit);
+            case SORT_SKU -> warehouseId == null
+                    ? inventoryRepository.findPageOrderBySkuAfter(position.lastKey(), position.afterId(), limit)
+                    : inventoryRepository.findPageByWarehouseOrderBySkuAfter(warehouseId, position.lastKey(), position.afterId(), limit);
+            default -> warehouseId == null
+                    ? inventoryRepository.findPageAfterId(position.afterId(), limit)
+                    : inventoryRepository.findPageByWarehouseAfterId(warehouseId, position.afterId(), limit);
+        };
+        
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
         }
         
-        // Complete the transfer
-        transfer.setStatus(InventoryTransfer.TransferStatus.COMPLETED);
-        transfer.setCompletedAt(LocalDateTime.now());
-        inventoryTransferRepository.save(transfer);
+        String nextCursor = null;
+        if (hasMore) {
+            InventoryResponse last = rows.get(rows.size() - 1);
+            String lastKey = switch (sortKey) {
+                case SORT_ITEM_NAME -> last.getItemName();
+                case SORT_SKU -> last.getSku();
+                default -> null;
+            };
+            nextCursor = new KeysetCursor(sortKey, last.getInventoryId(), lastKey).encode();
+        }
         
-        logger.info("Inventory transfer completed successfully");
+        return InventoryPageResponse.builder()
+                .items(rows)
+                .sort(sortKey)
+                .size(pageSize)
+                .hasMore(hasMore)
+                .nextCursor(nextCursor)
+                .build();
+    }
+    
+    // The read-before-write SKU check gives a friendly error in the common case; the unique
+    // (warehouse_id, sku) key settles races between concurrent writers
+    private Inventory saveUniqueSku(Inventory inventory) {
+        try {
+            return inventoryRepository.saveAndFlush(inventory);
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicateSkuViolation(e)) {
+                throw e;
+            }
+            logger.error("Item with SKU {} already exists in warehouse {}", inventory.getSku(), inventory.getWarehouse().getName());
+            throw new IllegalArgumentException("Item with SKU " + inventory.getSku() + " already exists in warehouse "
+                    + inventory.getWarehouse().getName());
+        }
+    }
+    
+    // Hibernate reports the constraint name; plain JDBC writes only have it in the driver's message
+    static boolean isDuplicateSkuViolation(DataIntegrityViolationException e) {
+        if (e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+            return violation.getConstraintName().toLowerCase().contains(UNIQUE_SKU_CONSTRAINT);
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase().contains(UNIQUE_SKU_CONSTRAINT);
+    }
+    
+    // Listeners apply the change once the surrounding transaction (if any) commits
+    private void publishChange(InventoryResponse before, InventoryResponse after,
+                               InventoryMovement.MovementType movementType) {
+        eventPublisher.publishEvent(new InventoryChangedEvent(before, after, movementType));
+    }
+    
+    // Served from the warehouse cache, so repeated checks cost no database round trip
+    private void requireWarehouseExists(Integer warehouseId) {
+        if (entityCache.findWarehouse(warehouseId) == null) {
+            logger.error("Warehouse not found with id: {}", warehouseId);
+            throw new IllegalArgumentException("Warehouse not found with id: " + warehouseId);
+        }
+    }
+    
+    private void writeCsvRow(Writer writer, InventoryResponse response) throws IOException {
+        writer.write(String.valueOf(response.getInventoryId()));
+        writer.write(',');
+        writer.write(csvField(response.getItemName()));
+        writer.write(',');
+        writer.write(csvField(response.getDescription()));
+        writer.write(',');
+        writer.write(csvField(response.getSku()));
+        writer.write(',');
+        writer.write(csvField(response.getQuantity()));
+        writer.write(',');
+        writer.write(csvField(response.getReorderPoint()));
+        writer.write(',');
+        writer.write(csvField(response.getReorderQuantity()));
+        writer.write(',');
+        writer.write(csvField(response.getUnitPrice()));
+        writer.write(',');
+        writer.write(csvField(response.getWarehouseId()));
+        writer.write(',');
+        writer.write(csvField(response.getWarehouseName()));
+        writer.write(',');
+        writer.write(csvField(response.getUpdatedAt()));
+        writer.write(',');
+        writer.write(csvField(response.getNeedsRestock()));
+        writer.write('\n');
+    }
+    
+    private String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+    
+    private String resolveSortKey(String sort) {
+        if (sort == null || sort.isBlank() || SORT_ID.equals(sort)) {
+            return SORT_ID;
+        }
+        if (SORT_ITEM_NAME.equals(sort) || SORT_SKU.equals(sort)) {
+            return sort;
+        }
+        logger.error("Unsupported inventory sort key: {}", sort);
+        throw new IllegalArgumentException("Invalid sort. Valid values are: id, itemName, sku");
+    }
+    
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(size, maxPageSize);
+    }
+    
+    /**
+     * Position of the last row handed out, encoded as an opaque URL-safe token.
+     * The sort key is part of the token so a cursor cannot be replayed against a different ordering.
+     */
+    private record KeysetCursor(String sortKey, Integer afterId, String lastKey) {
+        
+        static KeysetCursor start(String sortKey) {
+            return new KeysetCursor(sortKey, 0, null);
+        }
+        
+        static KeysetCursor decode(String token, String expectedSortKey) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split(":", 3);
+                if (parts.length < 2 || !parts[0].equals(expectedSortKey)) {
+                    throw new IllegalArgumentException("Cursor does not match sort " + expectedSortKey);
+                }
+                String lastKey = parts.length == 3 ? parts[2] : null;
+                return new KeysetCursor(parts[0], Integer.valueOf(parts[1]), lastKey);
+            } catch (IllegalArgumentException e) {
+                logger.error("Invalid inventory cursor: {}", token);
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        
+        String encode() {
+            String raw = sortKey + ":" + afterId + (lastKey != null ? ":" + lastKey : "");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
     }
     
-    private InventoryResponse mapToInventoryResponse(Inventory inventory) {
-        boolean needsRestock = inventory.getQuantity() <= inventory.getReorderPoint();
+    // Shared with InventoryBatchService so both build identical change-event snapshots
+    static InventoryResponse mapToInventoryResponse(Inventory inventory) {
+        boolean needsRestock = inventory.getReorderPoint() != null
+                && inventory.getQuantity() <= inventory.getReorderPoint();
         
         return InventoryResponse.builder()
                 .inventoryId(inventory.getInventoryId())
@@ -288,6 +740,7 @@ public class InventoryService {
                 .warehouseName(inventory.getWarehouse().getName())
                 .updatedAt(inventory.getUpdatedAt())
                 .needsRestock(needsRestock)
+                .version(inventory.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,194 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.dto.InventoryChangesResponse;
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.dto.InventoryTombstone;
+import com.logistics.logistics.model.InventoryDeletion;
+import com.logistics.logistics.repository.InventoryDeletionRepository;
+import com.logistics.logistics.repository.InventoryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Delta sync for inventory clients. A watermark tracks two keyset positions, one over
+ * Inventory.updated_at for upserts and one over the deletion log for tombstones.
+ *
+ * Timestamps are taken before commit, so a row can become visible after a newer one was
+ * already served. Once a sync is caught up the next watermark is rewound by the overlap
+ * window: the transaction timeout (spring.transaction.default-timeout) plus
+ * inventory.sync.overlap-margin-ms for commit latency and clock skew. A row committed later
+ * than that after its timestamp can still be missed, so transactions with a longer explicit
+ * timeout must not write inventory. Clients may see a row twice. Inventory ids are never
+ * reused, so applying upserts first and tombstones second is always safe.
+ *
+ * Tombstones are kept for inventory.sync.tombstone-retention-ms and then pruned, so that is the
+ * longest a client may go without syncing. A watermark older than the retention is refused with
+ * 400; such a client must discard its replica and resync from scratch by calling without a
+ * watermark. A first sync only returns tombstones still within the retention.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventorySyncService {
+    private static final Logger logger = LoggerFactory.getLogger(InventorySyncService.class);
+    
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private final InventoryRepository inventoryRepository;
+    private final InventoryDeletionRepository inventoryDeletionRepository;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${inventory.sync.default-limit:500}")
+    private int defaultLimit;
+    
+    @Value("${inventory.sync.max-limit:5000}")
+    private int maxLimit;
+    
+    @Value("${inventory.sync.overlap-margin-ms:5000}")
+    private long overlapMarginMs;
+    
+    private long overlapMs;
+    
+    @Value("${inventory.sync.tombstone-retention-ms:2592000000}")
+    private long tombstoneRetentionMs;
+    
+    // A commit can lag its timestamp by at most the transaction timeout, so that bounds the overlap
+    @PostConstruct
+    void deriveOverlap() {
+        int timeoutSeconds = transactionManager instanceof AbstractPlatformTransactionManager manager
+                ? manager.getDefaultTimeout() : -1;
+        if (timeoutSeconds <= 0) {
+            throw new IllegalStateException("Delta sync needs spring.transaction.default-timeout to bound late commits");
+        }
+        overlapMs = timeoutSeconds * 1000L + overlapMarginMs;
+        logger.info("Inventory sync watermarks rewind by {} ms", overlapMs);
+    }
+    
+    @Transactional(readOnly = true)
+    public InventoryChangesResponse getChangesSince(String since, Integer limit) {
+        int pageSize = limit == null ? defaultLimit : Math.min(Math.max(limit, 1), maxLimit);
+        LocalDateTime retainedSince = LocalDateTime.now().minus(Duration.ofMillis(tombstoneRetentionMs));
+        Watermark watermark = since == null || since.isBlank()
+                ? Watermark.initial(retainedSince)
+                : Watermark.decode(since);
+        if (watermark.deletionsAfter().isBefore(retainedSince)) {
+            // Deletions since then may already be pruned, so the client could keep rows that are gone
+            logger.warn("Refused inventory sync watermark from {}, older than the tombstone retention",
+                    watermark.deletionsAfter());
+            throw new IllegalArgumentException("Sync watermark has expired, start a full resync without a watermark");
+        }
+        
+        // Captured before reading so anything committed after this point is picked up next time
+        LocalDateTime rewind = LocalDateTime.now().minusNanos(overlapMs * 1_000_000);
+        
+        List<InventoryResponse> upserts = inventoryRepository.findInventoryResponsesUpdatedAfter(
+                watermark.upsertsAfter(), watermark.upsertAfterId(), PageRequest.of(0, pageSize + 1));
+        boolean moreUpserts = upserts.size() > pageSize;
+        if (moreUpserts) {
+            upserts = upserts.subList(0, pageSize);
+        }
+        
+        List<InventoryDeletion> deletions = inventoryDeletionRepository.findDeletedAfter(
+                watermark.deletionsAfter(), watermark.deletionAfterId(), PageRequest.of(0, pageSize + 1));
+        boolean moreDeletions = deletions.size() > pageSize;
+        if (moreDeletions) {
+            deletions = deletions.subList(0, pageSize);
+        }
+        
+        LocalDateTime nextUpsertsAfter = rewind;
+        Integer nextUpsertAfterId = 0;
+        if (moreUpserts) {
+            InventoryResponse last = upserts.get(upserts.size() - 1);
+            nextUpsertsAfter = last.getUpdatedAt();
+            nextUpsertAfterId = last.getInventoryId();
+        }
+        
+        LocalDateTime nextDeletionsAfter = rewind;
+        Long nextDeletionAfterId = 0L;
+        if (moreDeletions) {
+            InventoryDeletion last = deletions.get(deletions.size() - 1);
+            nextDeletionsAfter = last.getDeletedAt();
+            nextDeletionAfterId = last.getDeletionId();
+        }
+        
+        Watermark next = new Watermark(nextUpsertsAfter, nextUpsertAfterId, nextDeletionsAfter, nextDeletionAfterId);
+        logger.debug("Inventory sync returned {} upserts and {} deletions", upserts.size(), deletions.size());
+        
+        return InventoryChangesResponse.builder()
+                .upserts(upserts)
+                .deletions(deletions.stream()
+                        .map(this::mapToTombstone)
+                        .collect(Collectors.toList()))
+                .watermark(next.encode())
+                .hasMore(moreUpserts || moreDeletions)
+                .build();
+    }
+    
+    @Scheduled(fixedDelayString = "${inventory.sync.prune-interval-ms:3600000}",
+            initialDelayString = "${inventory.sync.prune-interval-ms:3600000}")
+    void pruneTombstones() {
+        try {
+            int deleted = inventoryDeletionRepository.deleteDeletedBefore(
+                    LocalDateTime.now().minus(Duration.ofMillis(tombstoneRetentionMs)));
+            if (deleted > 0) {
+                logger.info("Pruned {} inventory tombstones past the retention", deleted);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Pruning inventory tombstones failed: {}", e.getMessage(), e);
+        }
+    }
+    
+    private InventoryTombstone mapToTombstone(InventoryDeletion deletion) {
+        return InventoryTombstone.builder()
+                .inventoryId(deletion.getInventoryId())
+                .warehouseId(deletion.getWarehouseId())
+                .sku(deletion.getSku())
+                .deletedAt(deletion.getDeletedAt())
+                .build();
+    }
+    
+    private record Watermark(LocalDateTime upsertsAfter, Integer upsertAfterId,
+                             LocalDateTime deletionsAfter, Long deletionAfterId) {
+        
+        // A new client has no rows to delete, so older tombstones are of no use to it
+        static Watermark initial(LocalDateTime retainedSince) {
+            return new Watermark(EPOCH, 0, retainedSince, 0L);
+        }
+        
+        static Watermark decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split(",");
+                if (parts.length != 4) {
+                    throw new IllegalArgumentException("Unexpected watermark layout");
+                }
+                return new Watermark(LocalDateTime.parse(parts[0]), Integer.valueOf(parts[1]),
+                        LocalDateTime.parse(parts[2]), Long.valueOf(parts[3]));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                logger.error("Invalid inventory sync watermark: {}", token);
+                throw new IllegalArgumentException("Invalid sync watermark");
+            }
+        }
+        
+        String encode() {
+            String raw = upsertsAfter + "," + upsertAfterId + "," + deletionsAfter + "," + deletionAfterId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory set of inventory rows at or below their reorder point, partitioned by warehouse.
+ * Seeded once at startup and kept current from {@link InventoryChangedEvent}s, so the reorder
+ * endpoints never have to run the two-column comparison against the table.
+ * Changes made inside a transaction are applied only after it commits. Listeners of different
+ * transactions can run in any order, so an event older than the last one applied to its row is ignored.
+ */
+@Component
+@RequiredArgsConstructor
+public class LowStockIndex {
+    private static final Logger logger = LoggerFactory.getLogger(LowStockIndex.class);
+    
+    private final InventoryRepository inventoryRepository;
+    
+    private final Map<Integer, ConcurrentSkipListMap<Integer, InventoryResponse>> itemsByWarehouse = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> warehouseByInventoryId = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> appliedVersions = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void seed() {
+        logger.info("Seeding low-stock index");
+        itemsByWarehouse.clear();
+        warehouseByInventoryId.clear();
+        appliedVersions.clear();
+        
+        // Loaded under the lock so no write applied meanwhile can be overwritten by older rows.
+        // Versions of all rows first: an event committed before either query is then recognised as stale.
+        for (Object[] row : inventoryRepository.findAllVersions()) {
+            InventoryChangedEvent.recordVersion(appliedVersions, (Integer) row[0], (Long) row[1]);
+        }
+        List<InventoryResponse> lowStock = inventoryRepository.findInventoryResponsesBelowReorderPoint();
+        lowStock.forEach(item -> {
+            InventoryChangedEvent.recordVersion(appliedVersions, item.getInventoryId(), item.getVersion());
+            put(item);
+        });
+        ready = true;
+        logger.info("Low-stock index seeded with {} items", lowStock.size());
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public List<InventoryResponse> findAll() {
+        List<InventoryResponse> items = new ArrayList<>();
+        itemsByWarehouse.values().forEach(partition -> items.addAll(partition.values()));
+        return items;
+    }
+    
+    public List<InventoryResponse> findByWarehouse(Integer warehouseId) {
+        ConcurrentSkipListMap<Integer, InventoryResponse> partition = itemsByWarehouse.get(warehouseId);
+        return partition == null ? Collections.emptyList() : new ArrayList<>(partition.values());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onInventoryChanged(InventoryChangedEvent event) {
+        if (InventoryChangedEvent.isStale(event, appliedVersions)) {
+            return;
+        }
+        if (event.after() == null) {
+            evict(event.inventoryId());
+        } else {
+            apply(event.after());
+        }
+    }
+    
+    private synchronized void apply(InventoryResponse item) {
+        evict(item.getInventoryId());
+        if (Boolean.TRUE.equals(item.getNeedsRestock())) {
+            put(item);
+        }
+    }
+    
+    private void put(InventoryResponse item) {
+        itemsByWarehouse.computeIfAbsent(item.getWarehouseId(), id -> new ConcurrentSkipListMap<>())
+                .put(item.getInventoryId(), item);
+        warehouseByInventoryId.put(item.getInventoryId(), item.getWarehouseId());
+    }
+    
+    private synchronized void evict(Integer inventoryId) {
+        Integer warehouseId = warehouseByInventoryId.remove(inventoryId);
+        if (warehouseId != null) {
+            ConcurrentSkipListMap<Integer, InventoryResponse> partition = itemsByWarehouse.get(warehouseId);
+            if (partition != null) {
+                partition.remove(inventoryId);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.logistics.logistics.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a read-modify-write in its own transaction and replays it when a versioned entity was changed
+ * underneath it, or when MySQL picked it as a deadlock or lock-wait victim. Each attempt re-reads
+ * fresh state, so a retried write is applied on top of the winner's instead of overwriting it.
+ * Backoff is exponential with full jitter and capped.
+ *
+ * Metrics (tagged by operation): inventory.optimistic.conflicts, inventory.optimistic.exhausted and
+ * the inventory.optimistic.attempts summary of attempts per successful call.
+ */
+@Component
+@RequiredArgsConstructor
+public class OptimisticRetry {
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.retry.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${inventory.retry.initial-backoff-ms:10}")
+    private long initialBackoffMs;
+
+    @Value("${inventory.retry.max-backoff-ms:500}")
+    private long maxBackoffMs;
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // A conflict poisons the caller's transaction, so only the outermost caller can retry
+            return action.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = transactionTemplate.execute(status -> action.get());
+                meterRegistry.summary("inventory.optimistic.attempts", "operation", operation).record(attempt);
+                return result;
+            } catch (ConcurrencyFailureException e) {
+                meterRegistry.counter("inventory.optimistic.conflicts", "operation", operation).increment();
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("inventory.optimistic.exhausted", "operation", operation).increment();
+                    logger.error("Giving up on {} after {} conflicting attempts", operation, attempt);
+                    throw e;
+                }
+                logger.warn("Concurrent modification during {}, retrying (attempt {})", operation, attempt);
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    public void execute(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private void backoff(int attempt, ConcurrencyFailureException cause) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
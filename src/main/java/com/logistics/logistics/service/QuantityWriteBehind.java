@@ -0,0 +1,314 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.dto.QuantityAdjustment;
+import com.logistics.logistics.dto.QuantityAdjustmentResult;
+import com.logistics.logistics.dto.QuantityBatchResponse;
+import com.logistics.logistics.repository.InventoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional write-behind for PATCH /api/inventory/{id}/quantity. Deltas are accumulated per inventory
+ * row in memory and written as one net delta per row every flush-interval-ms, or sooner once
+ * flush-threshold deltas are waiting, through the same conditional batch UPDATE as
+ * POST /api/inventory/quantity/batch. A burst of +1/-1 scans on a hot SKU becomes one row update.
+ *
+ * Each row keeps its projected quantity and its unflushed delta packed into one AtomicLong, so the
+ * non-negativity check and the recording of a delta are a single compare-and-set. The projection is
+ * re-based on every committed change to the row, including this component's own flushes; an event
+ * that arrives after a newer version of the row was applied is ignored. The database still enforces
+ * non-negativity; a flushed delta it rejects is dropped and counted. Pending deltas are flushed on
+ * shutdown, but a crash loses at most one interval of them, which is why this is opt-in.
+ *
+ * A row whose slot had nothing to flush is dropped from memory by that flush, so only rows changed
+ * within the last interval are held. Once shutdown has begun new deltas are rejected with
+ * {@link TaskRejectedException}, and one that raced with the final flush is written by its own caller.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuantityWriteBehind {
+    private static final Logger logger = LoggerFactory.getLogger(QuantityWriteBehind.class);
+
+    private final InventoryBatchService inventoryBatchService;
+    private final InventoryRepository inventoryRepository;
+    private final MeterRegistry meterRegistry;
+    private final TaskScheduler taskScheduler;
+
+    private final Map<Integer, Slot> slots = new ConcurrentHashMap<>();
+    private final AtomicInteger recordedSinceFlush = new AtomicInteger();
+    private volatile boolean stopping;
+
+    @Value("${inventory.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${inventory.write-behind.flush-threshold:1000}")
+    private int flushThreshold;
+
+    @Value("${inventory.batch.max-size:5000}")
+    private int maxBatchSize;
+
+    // A slot that was dropped from the map; recording into it must look the row up again
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    // Projected quantity in the high 32 bits, unflushed net delta in the low 32 bits
+    private static final class Slot {
+        final AtomicLong state;
+        volatile InventoryResponse snapshot;
+        // Version of the snapshot; guarded by the slot's monitor
+        Long appliedVersion;
+
+        Slot(InventoryResponse snapshot) {
+            this.state = new AtomicLong(pack(snapshot.getQuantity(), 0));
+            this.snapshot = snapshot;
+            this.appliedVersion = snapshot.getVersion();
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            logger.info("Quantity write-behind enabled, flushing every {} ms or {} deltas", flushIntervalMs, flushThreshold);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a delta and returns the row with its projected quantity. Rejects the delta immediately if
+     * it would take the projected quantity below zero.
+     */
+    public InventoryResponse record(Integer id, Integer quantityChange) {
+        if (stopping) {
+            throw new TaskRejectedException("Quantity updates are paused while the service shuts down, please retry later");
+        }
+        Slot slot;
+        long state;
+        int projected;
+        do {
+            slot = slotFor(id);
+            state = slot.state.get();
+            if (state == RETIRED) {
+                continue;
+            }
+            projected = quantity(state) + quantityChange;
+            if (projected < 0) {
+                logger.error("Cannot reduce inventory below zero. Id: {}, Change: {}", id, quantityChange);
+                throw new IllegalArgumentException("Cannot reduce inventory below zero");
+            }
+            if (slot.state.compareAndSet(state, pack(projected, pending(state) + quantityChange))) {
+                break;
+            }
+        } while (true);
+
+        meterRegistry.counter("inventory.writebehind.recorded").increment();
+        if (stopping) {
+            // The final flush may already have run, so nobody else would write this delta
+            flush();
+        } else if (recordedSinceFlush.incrementAndGet() == flushThreshold) {
+            try {
+                taskScheduler.schedule(this::flushQuietly, Instant.now());
+            } catch (TaskRejectedException e) {
+                // The scheduler stops before this bean is destroyed
+                flushQuietly();
+            }
+        }
+
+        InventoryResponse snapshot = slot.snapshot;
+        return snapshot.toBuilder()
+                .quantity(projected)
+                .needsRestock(snapshot.getReorderPoint() != null && projected <= snapshot.getReorderPoint())
+                .build();
+    }
+
+    public synchronized int flush() {
+        recordedSinceFlush.set(0);
+        List<QuantityAdjustment> adjustments = new ArrayList<>();
+        slots.forEach((id, slot) -> {
+            long state;
+            do {
+                state = slot.state.get();
+                if (state == RETIRED) {
+                    return;
+                }
+                if (pending(state) == 0) {
+                    // Nothing recorded since the last flush
+                    retire(id, slot, state);
+                    return;
+                }
+            } while (!slot.state.compareAndSet(state, pack(quantity(state), 0)));
+            adjustments.add(new QuantityAdjustment(id, pending(state)));
+        });
+        if (adjustments.isEmpty()) {
+            return 0;
+        }
+
+        int applied = 0;
+        for (int from = 0; from < adjustments.size(); from += maxBatchSize) {
+            List<QuantityAdjustment> chunk = adjustments.subList(from, Math.min(from + maxBatchSize, adjustments.size()));
+            try {
+                applied += flushChunk(chunk);
+            } catch (RuntimeException e) {
+                // Nothing of this chunk or the ones after it was written; the next flush retries them
+                restore(adjustments.subList(from, adjustments.size()));
+                throw e;
+            }
+        }
+        logger.debug("Write-behind flushed {} rows", applied);
+        return applied;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        if (event.after() == null) {
+            Slot slot = slots.get(event.before().getInventoryId());
+            if (slot != null) {
+                slot.state.set(RETIRED);
+                slots.remove(event.before().getInventoryId(), slot);
+            }
+        } else {
+            rebase(event.after());
+        }
+    }
+
+    // The scheduler has stopped by now, so this is the last flush
+    @PreDestroy
+    void stop() {
+        stopping = true;
+        if (!enabled) {
+            return;
+        }
+        int rows = flush();
+        logger.info("Quantity write-behind flushed {} rows on shutdown", rows);
+    }
+
+    private int flushChunk(List<QuantityAdjustment> adjustments) {
+        QuantityBatchResponse response = inventoryBatchService.adjustQuantities(adjustments, InventoryBatchService.MODE_PARTIAL);
+        meterRegistry.counter("inventory.writebehind.flushed.rows").increment(response.getApplied());
+
+        List<Integer> rejected = new ArrayList<>();
+        for (QuantityAdjustmentResult result : response.getResults()) {
+            if (result.getStatus() == QuantityAdjustmentResult.Status.NOT_FOUND) {
+                Slot slot = slots.get(result.getInventoryId());
+                if (slot != null) {
+                    slot.state.set(RETIRED);
+                    slots.remove(result.getInventoryId(), slot);
+                }
+            } else if (result.getStatus() != QuantityAdjustmentResult.Status.APPLIED) {
+                rejected.add(result.getInventoryId());
+            }
+        }
+        if (response.getFailed() > 0) {
+            meterRegistry.counter("inventory.writebehind.rejected").increment(response.getFailed());
+            logger.error("Write-behind flush dropped {} net deltas that the database rejected", response.getFailed());
+        }
+        if (!rejected.isEmpty()) {
+            // Nothing committed for these rows, so re-base their projection on the database
+            inventoryRepository.findInventoryResponsesByIds(rejected).forEach(this::rebase);
+        }
+        return response.getApplied();
+    }
+
+    private void restore(List<QuantityAdjustment> adjustments) {
+        for (QuantityAdjustment adjustment : adjustments) {
+            Slot slot = slots.get(adjustment.getInventoryId());
+            if (slot != null) {
+                slot.state.getAndUpdate(state -> state == RETIRED
+                        ? state : pack(quantity(state), pending(state) + adjustment.getDelta()));
+            }
+        }
+    }
+
+    // Committed quantity plus whatever has been recorded since the last flush took its deltas
+    private void rebase(InventoryResponse committed) {
+        Slot slot = slots.get(committed.getInventoryId());
+        if (slot == null) {
+            return;
+        }
+        synchronized (slot) {
+            Long version = committed.getVersion();
+            if (version != null && slot.appliedVersion != null && slot.appliedVersion >= version) {
+                return;
+            }
+            slot.appliedVersion = version;
+            slot.snapshot = committed;
+            long state;
+            do {
+                state = slot.state.get();
+                if (state == RETIRED) {
+                    return;
+                }
+            } while (!slot.state.compareAndSet(state, pack(committed.getQuantity() + pending(state), pending(state))));
+        }
+    }
+
+    private Slot slotFor(Integer id) {
+        Slot slot = slots.get(id);
+        if (slot != null) {
+            return slot;
+        }
+        InventoryResponse current = inventoryRepository.findInventoryResponseById(id)
+                .orElseThrow(() -> {
+                    logger.error("Inventory not found with id: {}", id);
+                    return new IllegalArgumentException("Inventory not found with id: " + id);
+                });
+        Slot loaded = new Slot(current);
+        slot = slots.putIfAbsent(id, loaded);
+        return slot != null ? slot : loaded;
+    }
+
+    // A concurrent record either lands before the compare-and-set and keeps the slot, or sees RETIRED
+    private void retire(Integer id, Slot slot, long idleState) {
+        if (slot.state.compareAndSet(idleState, RETIRED)) {
+            slots.remove(id, slot);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.write-behind.flush-interval-ms:200}",
+            initialDelayString = "${inventory.write-behind.flush-interval-ms:200}")
+    void flushQuietly() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Write-behind flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private static long pack(int quantity, int pending) {
+        return ((long) quantity << 32) | (pending & 0xFFFFFFFFL);
+    }
+
+    private static int quantity(long state) {
+        return (int) (state >> 32);
+    }
+
+    private static int pending(long state) {
+        return (int) state;
+    }
+}
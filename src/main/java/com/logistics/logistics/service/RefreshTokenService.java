@@ -0,0 +1,115 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.model.RefreshToken;
+import com.logistics.logistics.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens, so a client can get a new access token without sending its
+ * password, and therefore without a BCrypt check. A refresh token is 256 random bits; the table only
+ * keeps its SHA-256, so a refresh is one primary-key lookup and one conditional update.
+ *
+ * Each token can be exchanged once. Presenting a token that was already exchanged revokes every token
+ * of its family, which cuts off both the legitimate client and whoever copied the token. Tokens expire
+ * jwt.refresh.expiration ms after they were issued; expired rows are deleted every
+ * jwt.refresh.prune-interval-ms.
+ */
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // A plain insert; save() would first select the row because the id is assigned here
+    private static final String INSERT_SQL = "INSERT INTO RefreshTokens (token_hash, family_id, username, " +
+            "created_at, expires_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${jwt.refresh.expiration:1209600000}")
+    private long expirationMs;
+
+    // The user a refresh token was issued to, and the token that replaces it
+    public record Rotation(String username, String refreshToken) {
+    }
+
+    // Starts a new family, e.g. at login
+    public String issue(String username) {
+        return store(username, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for its successor. Throws IllegalArgumentException if the token is
+     * unknown, expired, revoked or already exchanged; in the last case the whole family is revoked.
+     */
+    public Rotation rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new IllegalArgumentException("Refresh token is required");
+        }
+        String hash = JwtService.sha256Hex(rawToken);
+        RefreshToken token = refreshTokenRepository.findById(hash)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (token.getRevokedAt() != null || token.getExpiresAt().isBefore(now)) {
+            throw new IllegalArgumentException("Invalid refresh token");
+        }
+        // Not in one transaction with the checks above: the revocation must be kept although we throw
+        if (token.getUsedAt() != null || refreshTokenRepository.markUsed(hash, now) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+            logger.warn("Refresh token of user {} was reused, revoked {} tokens of its family",
+                    token.getUsername(), revoked);
+            throw new IllegalArgumentException("Invalid refresh token");
+        }
+        return new Rotation(token.getUsername(), store(token.getUsername(), token.getFamilyId()));
+    }
+
+    // Revokes the family of the token, e.g. at logout; an unknown token is ignored
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findById(JwtService.sha256Hex(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    public int revokeUser(String username) {
+        return refreshTokenRepository.revokeUser(username, LocalDateTime.now());
+    }
+
+    private String store(String username, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(INSERT_SQL, JwtService.sha256Hex(rawToken), familyId, username,
+                Timestamp.valueOf(now), Timestamp.valueOf(now.plus(Duration.ofMillis(expirationMs))));
+        return rawToken;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.prune-interval-ms:3600000}",
+            initialDelayString = "${jwt.refresh.prune-interval-ms:3600000}")
+    void prune() {
+        try {
+            int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+            if (deleted > 0) {
+                logger.debug("Pruned {} expired refresh tokens", deleted);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Pruning refresh tokens failed: {}", e.getMessage(), e);
+        }
+    }
+}
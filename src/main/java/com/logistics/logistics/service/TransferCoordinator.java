@@ -0,0 +1,91 @@
+package com.logistics.logistics.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serialises only the transfers that touch the same stock. Every (sku, warehouse) pair hashes onto one
+ * of a fixed set of lock stripes, and a transfer takes all of its stripes in ascending stripe order, so
+ * two transfers can never wait on each other in a cycle. Transfers of unrelated SKUs almost always land
+ * on different stripes and run in parallel.
+ *
+ * The stripes are taken before the transaction starts, so queued transfers wait here instead of holding
+ * a pooled connection inside MySQL. The rows themselves are still locked with SELECT ... FOR UPDATE in
+ * (warehouse_id, sku) order, which keeps other application instances correct as well.
+ */
+@Component
+public class TransferCoordinator {
+    private static final Logger logger = LoggerFactory.getLogger(TransferCoordinator.class);
+
+    private final ReentrantLock[] stripes;
+    private final long lockTimeoutMs;
+
+    public TransferCoordinator(@Value("${inventory.transfer.lock-stripes:1024}") int stripeCount,
+                               @Value("${inventory.transfer.lock-timeout-ms:5000}") long lockTimeoutMs) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("inventory.transfer.lock-stripes must be positive");
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.lockTimeoutMs = lockTimeoutMs;
+    }
+
+    public record StockKey(String sku, Integer warehouseId) {
+    }
+
+    public <T> T execute(Collection<StockKey> keys, Supplier<T> action) {
+        // Sorted and de-duplicated: the canonical acquisition order
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        for (StockKey key : keys) {
+            stripeIndexes.add(stripeFor(key));
+        }
+
+        Deque<ReentrantLock> held = new ArrayDeque<>(stripeIndexes.size());
+        try {
+            for (Integer index : stripeIndexes) {
+                ReentrantLock stripe = stripes[index];
+                if (!stripe.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    logger.error("Timed out waiting for transfer lock on stripe {}", index);
+                    throw new CannotAcquireLockException("Timed out waiting for a concurrent transfer of the same stock");
+                }
+                held.push(stripe);
+            }
+            return action.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while waiting for a transfer lock", e);
+        } finally {
+            while (!held.isEmpty()) {
+                held.pop().unlock();
+            }
+        }
+    }
+
+    public void execute(Collection<StockKey> keys, Runnable action) {
+        execute(keys, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private int stripeFor(StockKey key) {
+        int hash = Objects.hash(key.sku(), key.warehouseId());
+        // Spread the high bits so nearby warehouse ids do not cluster on neighbouring stripes
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, stripes.length);
+    }
+}
@@ -0,0 +1,200 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.dto.TransferResponse;
+import com.logistics.logistics.model.InventoryTransfer;
+import com.logistics.logistics.repository.InventoryTransferRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes recorded transfers off the request thread. Each worker is a single-threaded lane and a
+ * transfer always runs on the lane of its source warehouse, so transfers out of one warehouse execute
+ * in the order they were accepted while different warehouses proceed in parallel.
+ *
+ * At most inventory.transfer.queue-capacity transfers may be waiting or running at once; beyond that,
+ * or once shutdown has begun, {@link #submit} rejects with {@link TaskRejectedException} and no stock
+ * is moved for the request: the check runs before the transfer is recorded, and a transfer recorded
+ * while shutdown began is marked CANCELLED instead of being left PENDING for the next start.
+ *
+ * A transfer that loses on contention (a stripe timeout or exhausted optimistic retries) is not
+ * cancelled: it is queued on its lane again after inventory.transfer.redispatch-delay-ms, up to
+ * inventory.transfer.max-redispatches times, and after that left for the next start.
+ *
+ * On shutdown the running transfers may finish; queued ones are skipped and stay PENDING. Transfers
+ * still PENDING or IN_TRANSIT when the application stops are picked up again on the next start.
+ */
+@Component
+public class TransferPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(TransferPipeline.class);
+
+    private final InventoryService inventoryService;
+    private final InventoryTransferRepository inventoryTransferRepository;
+    private final TaskScheduler taskScheduler;
+    private final ExecutorService[] lanes;
+    private final Semaphore capacity;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final long redispatchDelayMs;
+    private final int maxRedispatches;
+    private volatile boolean accepting = true;
+
+    public TransferPipeline(InventoryService inventoryService,
+                            InventoryTransferRepository inventoryTransferRepository,
+                            TaskScheduler taskScheduler,
+                            MeterRegistry meterRegistry,
+                            @Value("${inventory.transfer.workers:4}") int workers,
+                            @Value("${inventory.transfer.queue-capacity:1000}") int queueCapacity,
+                            @Value("${inventory.transfer.redispatch-delay-ms:1000}") long redispatchDelayMs,
+                            @Value("${inventory.transfer.max-redispatches:5}") int maxRedispatches) {
+        if (workers <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("inventory.transfer.workers and queue-capacity must be positive");
+        }
+        this.inventoryService = inventoryService;
+        this.inventoryTransferRepository = inventoryTransferRepository;
+        this.taskScheduler = taskScheduler;
+        this.redispatchDelayMs = redispatchDelayMs;
+        this.maxRedispatches = maxRedispatches;
+        this.lanes = new ExecutorService[workers];
+        for (int i = 0; i < workers; i++) {
+            int lane = i;
+            lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "transfer-worker-" + lane);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.capacity = new Semaphore(queueCapacity);
+        meterRegistry.gauge("inventory.transfers.queued", queued);
+    }
+
+    public TransferResponse submit(Integer sourceInventoryId, Integer destinationWarehouseId,
+                                   Integer quantity, String username) {
+        if (!accepting) {
+            throw new TaskRejectedException("Transfer workers are shutting down, please retry later");
+        }
+        if (!capacity.tryAcquire()) {
+            logger.warn("Transfer queue is full, rejecting transfer of item {}", sourceInventoryId);
+            throw new TaskRejectedException("Transfer queue is full, please retry later");
+        }
+        try {
+            TransferResponse pending = inventoryService.createPendingTransfer(
+                    sourceInventoryId, destinationWarehouseId, quantity, username);
+            try {
+                dispatch(pending.getTransferId(), pending.getSourceWarehouseId(), true, 0);
+            } catch (TaskRejectedException e) {
+                // The client is told to retry, so this one must never run
+                inventoryService.cancelTransfer(pending.getTransferId(), "Rejected while transfer workers were shutting down");
+                throw e;
+            }
+            return pending;
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        List<InventoryTransfer> unfinished = inventoryTransferRepository.findByStatusInOrderByTransferIdAsc(
+                List.of(InventoryTransfer.TransferStatus.PENDING, InventoryTransfer.TransferStatus.IN_TRANSIT));
+        if (unfinished.isEmpty()) {
+            return;
+        }
+        logger.info("Resuming {} unfinished transfers", unfinished.size());
+        // Already accepted before the restart, so they do not count against the queue capacity
+        for (InventoryTransfer transfer : unfinished) {
+            dispatch(transfer.getTransferId(), transfer.getSourceWarehouse().getWarehouseId(), false, 0);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Queued transfers see this and return at once, staying PENDING for the next start
+        accepting = false;
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        for (ExecutorService lane : lanes) {
+            if (!lane.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                // The interrupted transfer is left IN_TRANSIT, not cancelled, and resumed on the next start
+                logger.warn("Transfer worker did not finish its current transfer within 30 s, interrupting it");
+                lane.shutdownNow();
+            }
+        }
+    }
+
+    private void dispatch(Integer transferId, Integer sourceWarehouseId, boolean holdsPermit, int redispatches) {
+        queued.incrementAndGet();
+        Runnable task = () -> {
+            boolean handedOver = false;
+            try {
+                if (!accepting) {
+                    return;
+                }
+                inventoryService.executeTransfer(transferId);
+            } catch (ConcurrencyFailureException e) {
+                handedOver = redispatchLater(transferId, sourceWarehouseId, holdsPermit, redispatches, e);
+            } catch (RuntimeException e) {
+                // Left PENDING or IN_TRANSIT and retried on the next start
+                logger.error("Transfer {} could not be executed: {}", transferId, e.getMessage(), e);
+            } finally {
+                queued.decrementAndGet();
+                if (holdsPermit && !handedOver) {
+                    capacity.release();
+                }
+            }
+        };
+        try {
+            lanes[Math.floorMod(sourceWarehouseId, lanes.length)].execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the transfer stays PENDING and is resumed on the next start
+            queued.decrementAndGet();
+            throw new TaskRejectedException("Transfer workers are shutting down, please retry later", e);
+        }
+    }
+
+    // Returns whether the queue permit moved on to the re-dispatched run
+    private boolean redispatchLater(Integer transferId, Integer sourceWarehouseId, boolean holdsPermit,
+                                    int redispatches, ConcurrencyFailureException cause) {
+        if (!accepting || Thread.currentThread().isInterrupted() || redispatches >= maxRedispatches) {
+            logger.warn("Transfer {} lost on contention and stays unfinished until the next start: {}",
+                    transferId, cause.getMessage());
+            return false;
+        }
+        logger.warn("Transfer {} lost on contention, running it again in {} ms: {}",
+                transferId, redispatchDelayMs, cause.getMessage());
+        try {
+            taskScheduler.schedule(() -> {
+                try {
+                    dispatch(transferId, sourceWarehouseId, holdsPermit, redispatches + 1);
+                } catch (TaskRejectedException e) {
+                    if (holdsPermit) {
+                        capacity.release();
+                    }
+                }
+            }, Instant.now().plus(Duration.ofMillis(redispatchDelayMs)));
+            return true;
+        } catch (TaskRejectedException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.logistics.logistics.service;
+
+/**
+ * Published whenever a user is created, removed, or has its role changed, so caches keyed by
+ * username can drop what they hold for that user.
+ */
+public record UserChangedEvent(String username) {
+}
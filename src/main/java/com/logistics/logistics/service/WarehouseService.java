@@ -2,6 +2,7 @@ package com.logistics.logistics.service;
 
 import com.logistics.logistics.dto.WarehouseRequest;
 import com.logistics.logistics.dto.WarehouseResponse;
+import com.logistics.logistics.dto.WarehouseStatsResponse;
 import com.logistics.logistics.model.User;
 import com.logistics.logistics.model.Warehouse;
 import com.logistics.logistics.repository.UserRepository;
@@ -12,7 +13,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +25,9 @@ public class WarehouseService {
     
     private final WarehouseRepository warehouseRepository;
     private final UserRepository userRepository;
+    private final WarehouseStatsCache warehouseStatsCache;
+    private final EntityCache entityCache;
+    private final CollectionVersions collectionVersions;
     
     public List<WarehouseResponse> getAllWarehouses() {
         logger.info("Fetching all warehouses");
@@ -32,12 +38,22 @@ public class WarehouseService {
     
     public WarehouseResponse getWarehouseById(Integer id) {
         logger.info("Fetching warehouse with id: {}", id);
-        Warehouse warehouse = warehouseRepository.findById(id)
+        EntityCache.CachedWarehouse warehouse = Optional.ofNullable(entityCache.findWarehouse(id))
                 .orElseThrow(() -> {
                     logger.error("Warehouse not found with id: {}", id);
                     return new IllegalArgumentException("Warehouse not found with id: " + id);
                 });
-        return mapToWarehouseResponse(warehouse);
+        return WarehouseResponse.builder()
+                .warehouseId(warehouse.warehouseId())
+                .name(warehouse.name())
+                .location(warehouse.location())
+                .capacity(warehouse.capacity())
+                .managerId(warehouse.managerId())
+                .managerName(warehouse.managerName())
+                .contactPhone(warehouse.contactPhone())
+                .contactEmail(warehouse.contactEmail())
+                .isActive(warehouse.isActive())
+                .build();
     }
     
     public WarehouseResponse createWarehouse(WarehouseRequest request) {
@@ -74,6 +90,8 @@ public class WarehouseService {
                     .build();
             
             Warehouse savedWarehouse = warehouseRepository.save(warehouse);
+            collectionVersions.warehouseChanged(savedWarehouse.getWarehouseId());
+            warehouseStatsCache.warehouseChanged(savedWarehouse);
             logger.info("Warehouse created successfully with id: {}", savedWarehouse.getWarehouseId());
             
             return mapToWarehouseResponse(savedWarehouse);
@@ -120,6 +138,9 @@ public class WarehouseService {
             warehouse.setContactEmail(request.getContactEmail());
             
             Warehouse updatedWarehouse = warehouseRepository.save(warehouse);
+            collectionVersions.warehouseChanged(id);
+            warehouseStatsCache.warehouseChanged(updatedWarehouse);
+            entityCache.warehouseChanged(id);
             logger.info("Warehouse updated successfully: {}", updatedWarehouse.getWarehouseId());
             
             return mapToWarehouseResponse(updatedWarehouse);
@@ -140,7 +161,9 @@ public class WarehouseService {
         
         // Soft delete by setting isActive to false
         warehouse.setIsActive(false);
-        warehouseRepository.save(warehouse);
+        warehouseStatsCache.warehouseChanged(warehouseRepository.save(warehouse));
+        collectionVersions.warehouseChanged(id);
+        entityCache.warehouseChanged(id);
         logger.info("Warehouse soft-deleted successfully: {}", id);
     }
     
@@ -158,6 +181,48 @@ public class WarehouseService {
                 .collect(Collectors.toList());
     }
     
+    public WarehouseStatsResponse getWarehouseStats(Integer id) {
+        logger.info("Fetching stats for warehouse id: {}", id);
+        EntityCache.CachedWarehouse warehouse = Optional.ofNullable(entityCache.findWarehouse(id))
+                .orElseThrow(() -> {
+                    logger.error("Warehouse not found with id: {}", id);
+                    return new IllegalArgumentException("Warehouse not found with id: " + id);
+                });
+        
+        WarehouseStatsCache.Totals totals = warehouseStatsCache.getTotals(id);
+        return buildStatsResponse(totals, warehouse.capacity())
+                .warehouseId(warehouse.warehouseId())
+                .warehouseName(warehouse.name())
+                .warehouseCount(1)
+                .build();
+    }
+    
+    public WarehouseStatsResponse getFleetStats() {
+        logger.info("Fetching fleet-wide warehouse stats");
+        WarehouseStatsCache.Fleet fleet = warehouseStatsCache.getFleet();
+        return buildStatsResponse(fleet.totals(), fleet.capacity())
+                .warehouseCount(fleet.warehouseCount())
+                .build();
+    }
+    
+    private WarehouseStatsResponse.WarehouseStatsResponseBuilder buildStatsResponse(WarehouseStatsCache.Totals totals,
+                                                                                    BigDecimal capacity) {
+        BigDecimal utilization = null;
+        if (capacity != null && capacity.signum() > 0) {
+            utilization = BigDecimal.valueOf(totals.totalUnits())
+                    .multiply(BigDecimal.valueOf(100))
+                    .divide(capacity, 2, RoundingMode.HALF_UP);
+        }
+        
+        return WarehouseStatsResponse.builder()
+                .skuCount(totals.skuCount())
+                .totalUnits(totals.totalUnits())
+                .stockValue(totals.stockValue())
+                .restockCount(totals.restockCount())
+                .capacity(capacity)
+                .capacityUtilization(utilization);
+    }
+    
     private WarehouseResponse mapToWarehouseResponse(Warehouse warehouse) {
         return WarehouseResponse.builder()
                 .warehouseId(warehouse.getWarehouseId())
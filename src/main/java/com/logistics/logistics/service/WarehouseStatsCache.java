@@ -0,0 +1,178 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.model.Warehouse;
+import com.logistics.logistics.repository.InventoryRepository;
+import com.logistics.logistics.repository.WarehouseRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-warehouse inventory totals, computed once with a GROUP BY query at startup and then adjusted
+ * incrementally from {@link InventoryChangedEvent}s by subtracting the old row and adding the new one.
+ * Also keeps the capacity of every active warehouse, so fleet stats need no query at all; fleet
+ * totals, capacity and warehouse count all cover active warehouses only.
+ * <p>
+ * The seed reads the totals and every row's version from one snapshot. An event whose version the
+ * snapshot already contains is skipped, so a write that committed just before the seed but was
+ * delivered after it is not counted twice.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarehouseStatsCache {
+    private static final Logger logger = LoggerFactory.getLogger(WarehouseStatsCache.class);
+    
+    private final InventoryRepository inventoryRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final PlatformTransactionManager transactionManager;
+    
+    private final Map<Integer, Totals> totalsByWarehouse = new ConcurrentHashMap<>();
+    private final Map<Integer, BigDecimal> activeCapacities = new ConcurrentHashMap<>();
+    // Guarded by this: row versions in the seed, rows counted since, and rows whose delete was seen
+    private final Map<Integer, Long> seededVersions = new HashMap<>();
+    private final Set<Integer> countedSinceSeed = new HashSet<>();
+    private final Set<Integer> deleted = new HashSet<>();
+    private volatile boolean ready;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void seed() {
+        logger.info("Seeding warehouse stats cache");
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setReadOnly(true);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.executeWithoutResult(status -> {
+            totalsByWarehouse.clear();
+            activeCapacities.clear();
+            seededVersions.clear();
+            countedSinceSeed.clear();
+            deleted.clear();
+            for (Object[] row : inventoryRepository.findAllVersions()) {
+                seededVersions.put((Integer) row[0], (Long) row[1]);
+            }
+            totalsByWarehouse.putAll(queryTotals());
+            activeCapacities.putAll(queryActiveCapacities());
+        });
+        ready = true;
+        logger.info("Warehouse stats cache seeded for {} warehouses", totalsByWarehouse.size());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onInventoryChanged(InventoryChangedEvent event) {
+        if (!ready) {
+            // The seed query has not run yet and will include this change
+            return;
+        }
+        Integer inventoryId = event.inventoryId();
+        if (deleted.contains(inventoryId)) {
+            // Covers a write delivered after its row's delete; the delete settled the row
+            return;
+        }
+        if (event.after() == null) {
+            deleted.add(inventoryId);
+            if (!seededVersions.containsKey(inventoryId) && !countedSinceSeed.contains(inventoryId)) {
+                // Deleted before the seed, or before its create was delivered: never counted
+                return;
+            }
+        } else {
+            Long seeded = seededVersions.get(inventoryId);
+            Long version = event.after().getVersion();
+            if (seeded != null && version != null && version <= seeded) {
+                return;
+            }
+            countedSinceSeed.add(inventoryId);
+        }
+        if (event.before() != null) {
+            totalsByWarehouse.merge(event.before().getWarehouseId(), Totals.of(event.before()).negate(), Totals::plus);
+        }
+        if (event.after() != null) {
+            totalsByWarehouse.merge(event.after().getWarehouseId(), Totals.of(event.after()), Totals::plus);
+        }
+    }
+    
+    public Totals getTotals(Integer warehouseId) {
+        Map<Integer, Totals> source = ready ? totalsByWarehouse : queryTotals();
+        return source.getOrDefault(warehouseId, Totals.EMPTY);
+    }
+    
+    public Fleet getFleet() {
+        Map<Integer, Totals> totals = ready ? totalsByWarehouse : queryTotals();
+        Map<Integer, BigDecimal> capacities = ready ? activeCapacities : queryActiveCapacities();
+        Totals fleetTotals = Totals.EMPTY;
+        BigDecimal capacity = BigDecimal.ZERO;
+        for (Map.Entry<Integer, BigDecimal> warehouse : capacities.entrySet()) {
+            fleetTotals = fleetTotals.plus(totals.getOrDefault(warehouse.getKey(), Totals.EMPTY));
+            capacity = capacity.add(warehouse.getValue());
+        }
+        return new Fleet(fleetTotals, capacities.size(), capacity);
+    }
+    
+    // Called by WarehouseService after a warehouse was saved; deactivated warehouses leave the fleet
+    public void warehouseChanged(Warehouse warehouse) {
+        if (Boolean.TRUE.equals(warehouse.getIsActive())) {
+            activeCapacities.put(warehouse.getWarehouseId(),
+                    warehouse.getCapacity() != null ? warehouse.getCapacity() : BigDecimal.ZERO);
+        } else {
+            activeCapacities.remove(warehouse.getWarehouseId());
+        }
+    }
+    
+    private Map<Integer, Totals> queryTotals() {
+        Map<Integer, Totals> totals = new HashMap<>();
+        for (InventoryRepository.WarehouseInventoryTotals row : inventoryRepository.aggregateByWarehouse()) {
+            totals.put(row.getWarehouseId(), new Totals(
+                    row.getSkuCount(),
+                    row.getTotalUnits(),
+                    row.getStockValue() != null ? row.getStockValue() : BigDecimal.ZERO,
+                    row.getRestockCount() != null ? row.getRestockCount() : 0L));
+        }
+        return totals;
+    }
+    
+    private Map<Integer, BigDecimal> queryActiveCapacities() {
+        Map<Integer, BigDecimal> capacities = new HashMap<>();
+        for (Object[] row : warehouseRepository.findActiveCapacities()) {
+            capacities.put((Integer) row[0], row[1] != null ? (BigDecimal) row[1] : BigDecimal.ZERO);
+        }
+        return capacities;
+    }
+    
+    public record Fleet(Totals totals, int warehouseCount, BigDecimal capacity) {
+    }
+    
+    public record Totals(long skuCount, long totalUnits, BigDecimal stockValue, long restockCount) {
+        
+        static final Totals EMPTY = new Totals(0, 0, BigDecimal.ZERO, 0);
+        
+        static Totals of(InventoryResponse item) {
+            long units = item.getQuantity() != null ? item.getQuantity() : 0;
+            BigDecimal value = item.getUnitPrice() != null
+                    ? item.getUnitPrice().multiply(BigDecimal.valueOf(units))
+                    : BigDecimal.ZERO;
+            return new Totals(1, units, value, Boolean.TRUE.equals(item.getNeedsRestock()) ? 1 : 0);
+        }
+        
+        Totals plus(Totals other) {
+            return new Totals(skuCount + other.skuCount, totalUnits + other.totalUnits,
+                    stockValue.add(other.stockValue), restockCount + other.restockCount);
+        }
+        
+        Totals negate() {
+            return new Totals(-skuCount, -totalUnits, stockValue.negate(), -restockCount);
+        }
+    }
+}
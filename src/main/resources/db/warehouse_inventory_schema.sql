@@ -62,8 +62,9 @@ CREATE TABLE IF NOT EXISTS Inventory (
     warehouse_id INT NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
     FOREIGN KEY (warehouse_id) REFERENCES Warehouses(warehouse_id),
-    UNIQUE KEY unique_sku_warehouse (sku, warehouse_id)
+    UNIQUE KEY uk_inventory_warehouse_sku (warehouse_id, sku)
 );
 
 -- Inventory Transfers Table
@@ -77,15 +78,93 @@ CREATE TABLE IF NOT EXISTS InventoryTransfers (
     initiated_by INT,
     initiated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     completed_at TIMESTAMP NULL,
+    failure_reason VARCHAR(255),
+    version BIGINT NOT NULL DEFAULT 0,
     FOREIGN KEY (source_warehouse_id) REFERENCES Warehouses(warehouse_id),
     FOREIGN KEY (destination_warehouse_id) REFERENCES Warehouses(warehouse_id),
     FOREIGN KEY (inventory_id) REFERENCES Inventory(inventory_id),
     FOREIGN KEY (initiated_by) REFERENCES Users(user_id)
 );
 
+-- Tombstones for deleted inventory rows, read by the delta-sync endpoint
+CREATE TABLE IF NOT EXISTS InventoryDeletions (
+    deletion_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    inventory_id INT NOT NULL,
+    warehouse_id INT,
+    sku VARCHAR(255) NOT NULL,
+    deleted_at DATETIME(6) NOT NULL,
+    INDEX idx_inventory_deletion_deleted_at (deleted_at)
+);
+
+-- Append-only stock ledger; movement_id is the sequence number, and there is no foreign key so history outlives deleted items
+CREATE TABLE IF NOT EXISTS InventoryMovements (
+    movement_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    inventory_id INT NOT NULL,
+    warehouse_id INT NOT NULL,
+    sku VARCHAR(255) NOT NULL,
+    movement_type VARCHAR(20) NOT NULL,
+    quantity_delta INT NOT NULL,
+    recorded_by VARCHAR(50),
+    recorded_at DATETIME(6) NOT NULL,
+    INDEX idx_movement_inventory_sequence (inventory_id, movement_id)
+);
+
+-- Quantity of a row after every movement up to movement_id; point-in-time queries replay only the movements after it
+CREATE TABLE IF NOT EXISTS InventorySnapshots (
+    snapshot_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    inventory_id INT NOT NULL,
+    movement_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    taken_at DATETIME(6) NOT NULL,
+    INDEX idx_snapshot_inventory_sequence (inventory_id, movement_id),
+    INDEX idx_snapshot_sequence (movement_id)
+);
+
+-- Idempotency-Key outcomes; rows without status_code are requests still in progress
+CREATE TABLE IF NOT EXISTS IdempotencyKeys (
+    idempotency_key VARCHAR(320) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status_code INT,
+    content_type VARCHAR(100),
+    location VARCHAR(255),
+    response_body MEDIUMBLOB,
+    created_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    INDEX idx_idempotency_expires_at (expires_at)
+);
+
+-- Refresh tokens by SHA-256; a used token presented again revokes its whole family
+CREATE TABLE IF NOT EXISTS RefreshTokens (
+    token_hash VARCHAR(64) PRIMARY KEY,
+    family_id VARCHAR(36) NOT NULL,
+    username VARCHAR(50) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    used_at DATETIME(6),
+    revoked_at DATETIME(6),
+    INDEX idx_refresh_token_family (family_id),
+    INDEX idx_refresh_token_username (username),
+    INDEX idx_refresh_token_expires_at (expires_at)
+);
+
+-- Revoked access tokens (kind TOKEN, subject = jti) and per-user cutoffs (kind USER, subject = username)
+CREATE TABLE IF NOT EXISTS TokenRevocations (
+    revocation_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    kind VARCHAR(10) NOT NULL,
+    subject VARCHAR(50) NOT NULL,
+    not_before DATETIME(6),
+    expires_at DATETIME(6) NOT NULL,
+    revoked_at DATETIME(6) NOT NULL,
+    INDEX idx_token_revocation_expires_at (expires_at)
+);
+
 -- Indexes for performance optimization
-CREATE INDEX idx_inventory_warehouse ON Inventory(warehouse_id);
-CREATE INDEX idx_inventory_reorder ON Inventory(reorder_point, quantity);
-CREATE INDEX idx_transfer_source ON InventoryTransfers(source_warehouse_id);
-CREATE INDEX idx_transfer_destination ON InventoryTransfers(destination_warehouse_id);
-CREATE INDEX idx_transfer_status ON InventoryTransfers(status);
+-- uk_inventory_warehouse_sku (warehouse_id, sku) also covers the warehouse foreign key
+CREATE INDEX idx_inventory_item_name ON Inventory(item_name);
+CREATE INDEX idx_inventory_sku ON Inventory(sku);
+CREATE INDEX idx_inventory_warehouse_item_name ON Inventory(warehouse_id, item_name);
+CREATE INDEX idx_inventory_updated_at ON Inventory(updated_at);
+CREATE INDEX idx_transfer_source_status ON InventoryTransfers(source_warehouse_id, status);
+CREATE INDEX idx_transfer_destination_status ON InventoryTransfers(destination_warehouse_id, status);
+CREATE INDEX idx_transfer_status_initiated ON InventoryTransfers(status, initiated_at);
+CREATE INDEX idx_transfer_inventory ON InventoryTransfers(inventory_id);
@@ -0,0 +1,50 @@
+package com.logistics.logistics;
+
+import com.logistics.logistics.dto.InventoryRequest;
+import com.logistics.logistics.service.InventoryService;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixtures for tests that share one H2 application context. Names carry a counter so tests never
+ * collide on a SKU or username, whichever order they run in.
+ */
+public final class TestData {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private TestData() {
+    }
+
+    public static String unique(String prefix) {
+        return prefix + "-" + SEQUENCE.incrementAndGet();
+    }
+
+    // Written with plain JDBC; warehouses publish no change events that tests depend on
+    public static Integer createWarehouse(JdbcTemplate jdbcTemplate) {
+        String manager = unique("test-manager");
+        jdbcTemplate.update("INSERT INTO Users (username, email, password_hash, role, created_at) VALUES (?, ?, ?, ?, ?)",
+                manager, manager + "@example.com", "not-a-hash", "ADMIN", Timestamp.valueOf(LocalDateTime.now()));
+        Integer managerId = jdbcTemplate.queryForObject("SELECT user_id FROM Users WHERE username = ?", Integer.class, manager);
+        jdbcTemplate.update("INSERT INTO Warehouses (name, location, capacity, manager_id, is_active) VALUES (?, ?, ?, ?, ?)",
+                unique("Test Warehouse"), "Test Location", new BigDecimal("100000.00"), managerId, true);
+        return jdbcTemplate.queryForObject("SELECT MAX(warehouse_id) FROM Warehouses", Integer.class);
+    }
+
+    // Through the service, so the ledger, caches and indexes see the CREATE event
+    public static Integer createItem(InventoryService inventoryService, Integer warehouseId, String itemName,
+                                     int quantity, Integer reorderPoint) {
+        return inventoryService.createInventory(InventoryRequest.builder()
+                .itemName(itemName)
+                .sku(unique("TEST"))
+                .quantity(quantity)
+                .reorderPoint(reorderPoint)
+                .unitPrice(new BigDecimal("9.99"))
+                .warehouseId(warehouseId)
+                .build()).getInventoryId();
+    }
+}
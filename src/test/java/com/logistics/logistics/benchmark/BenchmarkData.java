@@ -0,0 +1,100 @@
+package com.logistics.logistics.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds benchmark data with plain JDBC batches so setup time stays small next to what is measured.
+ */
+final class BenchmarkData {
+
+    private static final int BATCH_SIZE = 5_000;
+
+    private BenchmarkData() {
+    }
+
+    static List<Integer> seedWarehouses(JdbcTemplate jdbcTemplate, int warehouses) {
+        jdbcTemplate.update("INSERT INTO Users (username, email, password_hash, role, created_at) VALUES (?, ?, ?, ?, ?)",
+                "bench-manager-" + System.nanoTime(), "bench-" + System.nanoTime() + "@example.com",
+                "not-a-hash", "ADMIN", Timestamp.valueOf(LocalDateTime.now()));
+        Integer managerId = jdbcTemplate.queryForObject("SELECT MAX(user_id) FROM Users", Integer.class);
+
+        List<Integer> warehouseIds = new ArrayList<>();
+        for (int i = 0; i < warehouses; i++) {
+            jdbcTemplate.update("INSERT INTO Warehouses (name, location, capacity, manager_id, is_active) VALUES (?, ?, ?, ?, ?)",
+                    "Bench Warehouse " + i, "Bench Location " + i, new BigDecimal("1000000.00"), managerId, true);
+            warehouseIds.add(jdbcTemplate.queryForObject("SELECT MAX(warehouse_id) FROM Warehouses", Integer.class));
+        }
+        return warehouseIds;
+    }
+
+    static List<Integer> seedInventory(JdbcTemplate jdbcTemplate, int rows, int warehouses) {
+        List<Integer> warehouseIds = seedWarehouses(jdbcTemplate, warehouses);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String sql = "INSERT INTO Inventory (itemName, description, sku, quantity, reorder_point, reorder_quantity, " +
+                "unit_price, warehouse_id, created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            int warehouseIndex = i % warehouseIds.size();
+            batch.add(new Object[] {
+                    "Bench Item " + i, "Benchmark item " + i, "BENCH-" + (i / warehouseIds.size()),
+                    i % 100, 10, 50, new BigDecimal("9.99"), warehouseIds.get(warehouseIndex), now, now
+            });
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+        return warehouseIds;
+    }
+
+    // A few rows every worker thread hammers at once; returns their inventory ids
+    static List<Integer> seedHotItems(JdbcTemplate jdbcTemplate, int items, int quantity) {
+        Integer warehouseId = seedWarehouses(jdbcTemplate, 1).get(0);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Integer> inventoryIds = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            jdbcTemplate.update("INSERT INTO Inventory (itemName, sku, quantity, reorder_point, reorder_quantity, " +
+                            "unit_price, warehouse_id, created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)",
+                    "Hot Item " + i, "HOT-" + i, quantity, 10, 50, new BigDecimal("9.99"), warehouseId, now, now);
+            inventoryIds.add(jdbcTemplate.queryForObject("SELECT MAX(inventory_id) FROM Inventory", Integer.class));
+        }
+        return inventoryIds;
+    }
+
+    static void seedTransfers(JdbcTemplate jdbcTemplate, int transfers, List<Integer> warehouseIds) {
+        Integer minInventoryId = jdbcTemplate.queryForObject("SELECT MIN(inventory_id) FROM Inventory", Integer.class);
+        Integer maxInventoryId = jdbcTemplate.queryForObject("SELECT MAX(inventory_id) FROM Inventory", Integer.class);
+        String[] statuses = {"PENDING", "IN_TRANSIT", "COMPLETED", "COMPLETED", "COMPLETED", "CANCELLED"};
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String sql = "INSERT INTO InventoryTransfers (source_warehouse_id, destination_warehouse_id, inventory_id, " +
+                "quantity, status, initiated_at, version) VALUES (?, ?, ?, ?, ?, ?, 0)";
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < transfers; i++) {
+            int source = i % warehouseIds.size();
+            int destination = (i + 1) % warehouseIds.size();
+            int inventoryId = minInventoryId + (i % (maxInventoryId - minInventoryId + 1));
+            batch.add(new Object[] {
+                    warehouseIds.get(source), warehouseIds.get(destination), inventoryId,
+                    1 + i % 10, statuses[i % statuses.length], now
+            });
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.logistics.logistics.benchmark;
+
+import com.logistics.logistics.dto.InventoryImportResponse;
+import com.logistics.logistics.service.InventoryImportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Imports a generated NDJSON file of benchmark.rows rows into a few fresh warehouses, then imports it a
+ * second time in upsert mode. The file is produced on the fly while it is read, so neither the test nor
+ * the import ever holds it in memory; heap use is reported before and after to show it stays flat.
+ *
+ * Runs against the configured MySQL database and only when requested:
+ *   mvn test -Dtest=InventoryImportBenchmarkTest -Dbenchmark=true -Dbenchmark.rows=1000000
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InventoryImportBenchmarkTest {
+
+    @Autowired
+    private InventoryImportService inventoryImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+    private final int warehouses = Integer.getInteger("benchmark.warehouses", 4);
+
+    @Test
+    void importGeneratedFile() throws Exception {
+        List<Integer> warehouseIds = BenchmarkData.seedWarehouses(jdbcTemplate, warehouses);
+        String prefix = "IMPORT-" + System.nanoTime() + "-";
+
+        long insertStart = System.nanoTime();
+        InventoryImportResponse inserted = inventoryImportService.importInventory(
+                new GeneratedNdjson(rows, warehouseIds, prefix), "ndjson", InventoryImportService.MODE_INSERT);
+        long insertNanos = System.nanoTime() - insertStart;
+        long heapAfterInsert = usedHeap();
+
+        long upsertStart = System.nanoTime();
+        InventoryImportResponse upserted = inventoryImportService.importInventory(
+                new GeneratedNdjson(rows, warehouseIds, prefix), "ndjson", InventoryImportService.MODE_UPSERT);
+        long upsertNanos = System.nanoTime() - upsertStart;
+
+        System.out.printf("Import of %d NDJSON rows into %d warehouses:%n", rows, warehouses);
+        System.out.printf("  insert: %8.1f ms (%8.0f rows/s)%n", insertNanos / 1e6, rows / (insertNanos / 1e9));
+        System.out.printf("  upsert: %8.1f ms (%8.0f rows/s)%n", upsertNanos / 1e6, rows / (upsertNanos / 1e9));
+        System.out.printf("  heap after insert %d MB, after upsert %d MB%n", heapAfterInsert >> 20, usedHeap() >> 20);
+
+        assertEquals(rows, inserted.getInserted());
+        assertEquals(0, inserted.getFailed());
+        assertEquals(rows, upserted.getUpdated());
+        assertEquals((long) rows, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM Inventory WHERE sku LIKE ?", Long.class, prefix + "%"));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Renders one NDJSON line at a time as the importer reads
+    private static final class GeneratedNdjson extends InputStream {
+        private final int rows;
+        private final List<Integer> warehouseIds;
+        private final String prefix;
+        private int next;
+        private byte[] line = new byte[0];
+        private int position;
+
+        GeneratedNdjson(int rows, List<Integer> warehouseIds, String prefix) {
+            this.rows = rows;
+            this.warehouseIds = warehouseIds;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                if (next == rows) {
+                    return -1;
+                }
+                int warehouseId = warehouseIds.get(next % warehouseIds.size());
+                line = ("{\"itemName\":\"Imported item " + next + "\",\"sku\":\"" + prefix + (next / warehouseIds.size())
+                        + "\",\"quantity\":" + (next % 500) + ",\"reorderPoint\":10,\"reorderQuantity\":50,"
+                        + "\"unitPrice\":4.25,\"warehouseId\":" + warehouseId + "}\n").getBytes(StandardCharsets.UTF_8);
+                position = 0;
+                next++;
+            }
+            return line[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            int count = 0;
+            while (count < length) {
+                int b = read();
+                if (b == -1) {
+                    return count == 0 ? -1 : count;
+                }
+                buffer[offset + count++] = (byte) b;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.logistics.logistics.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query plans and latency of the inventory and transfer lookups with and without the indexes
+ * declared on {@code Inventory} and {@code InventoryTransfer}.
+ *
+ * The "before" run hides the new indexes with IGNORE INDEX and adds a plain warehouse_id index,
+ * which is what MySQL created for the foreign key before the composite keys existed.
+ * MySQL only, and only when requested:
+ *   mvn test -Dtest=InventoryIndexBenchmarkTest -Dbenchmark=true -Dbenchmark.rows=1000000
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InventoryIndexBenchmarkTest {
+
+    private static final int ITERATIONS = 20;
+
+    private static final String INVENTORY_INDEXES =
+            "uk_inventory_warehouse_sku, idx_inventory_item_name, idx_inventory_sku, idx_inventory_warehouse_item_name";
+    private static final String TRANSFER_INDEXES =
+            "idx_transfer_source_status, idx_transfer_destination_status, idx_transfer_status_initiated, idx_transfer_inventory";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Integer> warehouseIds;
+
+    @BeforeAll
+    void seed() {
+        int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+        warehouseIds = BenchmarkData.seedInventory(jdbcTemplate, rows, 50);
+        BenchmarkData.seedTransfers(jdbcTemplate, rows / 4, warehouseIds);
+        jdbcTemplate.execute("CREATE INDEX bench_fk_warehouse ON Inventory (warehouse_id)");
+        jdbcTemplate.execute("CREATE INDEX bench_fk_transfer_source ON InventoryTransfers (source_warehouse_id)");
+        jdbcTemplate.execute("ANALYZE TABLE Inventory, InventoryTransfers");
+    }
+
+    @AfterAll
+    void dropBaselineIndexes() {
+        jdbcTemplate.execute("DROP INDEX bench_fk_warehouse ON Inventory");
+        jdbcTemplate.execute("DROP INDEX bench_fk_transfer_source ON InventoryTransfers");
+    }
+
+    @Test
+    void compareQueryPlansAndLatency() {
+        Integer warehouseId = warehouseIds.get(warehouseIds.size() / 2);
+
+        compare("findBySkuAndWarehouse",
+                "SELECT * FROM Inventory %s WHERE sku = 'BENCH-1234' AND warehouse_id = " + warehouseId,
+                INVENTORY_INDEXES, "bench_fk_warehouse");
+        compare("keyset page by itemName",
+                "SELECT * FROM Inventory %s WHERE itemName > 'Bench Item 5' ORDER BY itemName, inventory_id LIMIT 51",
+                INVENTORY_INDEXES, "bench_fk_warehouse");
+        compare("warehouse keyset page by itemName",
+                "SELECT * FROM Inventory %s WHERE warehouse_id = " + warehouseId +
+                        " AND itemName > 'Bench Item 5' ORDER BY itemName, inventory_id LIMIT 51",
+                INVENTORY_INDEXES, "bench_fk_warehouse");
+        compare("findBySourceWarehouse + status",
+                "SELECT * FROM InventoryTransfers %s WHERE source_warehouse_id = " + warehouseId +
+                        " AND status = 'PENDING'",
+                TRANSFER_INDEXES, "bench_fk_transfer_source");
+        compare("findByStatus",
+                "SELECT * FROM InventoryTransfers %s WHERE status = 'IN_TRANSIT' ORDER BY initiated_at LIMIT 100",
+                TRANSFER_INDEXES, "bench_fk_transfer_source");
+    }
+
+    private void compare(String name, String sqlTemplate, String newIndexes, String baselineIndex) {
+        String before = String.format(sqlTemplate, "IGNORE INDEX (" + newIndexes + ")");
+        String after = String.format(sqlTemplate, "IGNORE INDEX (" + baselineIndex + ")");
+
+        System.out.printf("%n== %s ==%n", name);
+        System.out.printf("  before: %8.3f ms  plan %s%n", time(before) / 1e6, plan(before));
+        System.out.printf("  after : %8.3f ms  plan %s%n", time(after) / 1e6, plan(after));
+    }
+
+    private String plan(String sql) {
+        Map<String, Object> row = jdbcTemplate.queryForList("EXPLAIN " + sql).get(0);
+        return String.format("type=%s key=%s rows=%s extra=%s",
+                row.get("type"), row.get("key"), row.get("rows"), row.get("Extra"));
+    }
+
+    // Median of ITERATIONS runs after one warm-up run
+    private long time(String sql) {
+        jdbcTemplate.queryForList(sql);
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            jdbcTemplate.queryForList(sql);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[ITERATIONS / 2];
+    }
+}
@@ -0,0 +1,184 @@
+package com.logistics.logistics.benchmark;
+
+import com.logistics.logistics.dto.QuantityAdjustment;
+import com.logistics.logistics.model.Inventory;
+import com.logistics.logistics.repository.InventoryRepository;
+import com.logistics.logistics.service.InventoryBatchService;
+import com.logistics.logistics.service.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Hammers PATCH /api/inventory/{id}/quantity's service method from many threads at once and checks
+ * that every delta lands, then compares throughput with the old read-modify-write path and with
+ * sending the same deltas through the batch endpoint's service.
+ *
+ * Runs against the configured MySQL database and only when requested:
+ *   mvn test -Dtest=InventoryQuantityConcurrencyBenchmarkTest -Dbenchmark=true -Dbenchmark.threads=16
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InventoryQuantityConcurrencyBenchmarkTest {
+
+    private static final int START_QUANTITY = 1_000_000;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryBatchService inventoryBatchService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final int threads = Integer.getInteger("benchmark.threads", 16);
+    private final int opsPerThread = Integer.getInteger("benchmark.ops", 500);
+
+    @Test
+    void atomicAdjustmentLosesNoDeltas() throws Exception {
+        Integer id = BenchmarkData.seedHotItems(jdbcTemplate, 1, START_QUANTITY).get(0);
+
+        // Every thread alternates +3 and -2, so each pair nets +1
+        runConcurrently(op -> inventoryService.updateInventoryQuantity(id, op % 2 == 0 ? 3 : -2));
+
+        int expected = START_QUANTITY + threads * (opsPerThread / 2) + (opsPerThread % 2 == 0 ? 0 : threads * 3);
+        assertEquals(expected, quantityOf(id));
+    }
+
+    @Test
+    void atomicAdjustmentNeverOversells() throws Exception {
+        int stock = threads * opsPerThread / 4;
+        Integer id = BenchmarkData.seedHotItems(jdbcTemplate, 1, stock).get(0);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(op -> {
+            try {
+                inventoryService.updateInventoryQuantity(id, -1);
+                sold.incrementAndGet();
+            } catch (IllegalArgumentException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(stock, sold.get());
+        assertEquals(threads * opsPerThread - stock, rejected.get());
+        assertEquals(0, quantityOf(id));
+    }
+
+    @Test
+    void compareAtomicAndReadModifyWritePaths() throws Exception {
+        List<Integer> ids = BenchmarkData.seedHotItems(jdbcTemplate, 2, START_QUANTITY);
+        Integer atomicId = ids.get(0);
+        Integer legacyId = ids.get(1);
+        int totalOps = threads * opsPerThread;
+
+        long atomicNanos = runConcurrently(op -> inventoryService.updateInventoryQuantity(atomicId, 1));
+        AtomicInteger legacyConflicts = new AtomicInteger();
+        long legacyNanos = runConcurrently(op -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    // The path the service used before: read, add in Java, write back
+                    Inventory inventory = inventoryRepository.findById(legacyId).orElseThrow();
+                    inventory.setQuantity(inventory.getQuantity() + 1);
+                    inventoryRepository.save(inventory);
+                });
+            } catch (OptimisticLockingFailureException e) {
+                // With @Version the race is detected instead of silently losing the write
+                legacyConflicts.incrementAndGet();
+            }
+        });
+
+        int legacyLost = START_QUANTITY + totalOps - quantityOf(legacyId);
+        System.out.printf("Quantity adjustment, %d threads x %d ops on one row:%n", threads, opsPerThread);
+        System.out.printf("  conditional UPDATE : %8.0f ops/s, lost updates: %d%n",
+                totalOps / (atomicNanos / 1e9), START_QUANTITY + totalOps - quantityOf(atomicId));
+        System.out.printf("  read-modify-write  : %8.0f ops/s, lost updates: %d (%d rejected as version conflicts)%n",
+                totalOps / (legacyNanos / 1e9), legacyLost, legacyConflicts.get());
+        assertEquals(START_QUANTITY + totalOps, quantityOf(atomicId));
+    }
+
+    @Test
+    void compareSingleAndBatchAdjustments() {
+        int batchSize = Integer.getInteger("benchmark.batch", 1_000);
+        List<Integer> ids = BenchmarkData.seedHotItems(jdbcTemplate, 100, START_QUANTITY);
+        List<QuantityAdjustment> adjustments = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            adjustments.add(new QuantityAdjustment(ids.get(i % ids.size()), 1));
+        }
+
+        long singleStart = System.nanoTime();
+        for (QuantityAdjustment adjustment : adjustments) {
+            inventoryService.updateInventoryQuantity(adjustment.getInventoryId(), adjustment.getDelta());
+        }
+        long singleNanos = System.nanoTime() - singleStart;
+
+        long batchStart = System.nanoTime();
+        inventoryBatchService.adjustQuantities(adjustments, InventoryBatchService.MODE_ATOMIC);
+        long batchNanos = System.nanoTime() - batchStart;
+
+        System.out.printf("%d quantity adjustments over %d rows:%n", batchSize, ids.size());
+        System.out.printf("  one call each : %8.1f ms%n", singleNanos / 1e6);
+        System.out.printf("  one batch     : %8.1f ms%n", batchNanos / 1e6);
+        int perRow = 2 * batchSize / ids.size();
+        for (Integer id : ids) {
+            assertEquals(START_QUANTITY + perRow, quantityOf(id));
+        }
+    }
+
+    private long runConcurrently(IntConsumer operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Callable<Void>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(() -> {
+                    start.await();
+                    for (int op = 0; op < opsPerThread; op++) {
+                        operation.accept(op);
+                    }
+                    return null;
+                });
+            }
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> worker : workers) {
+                futures.add(executor.submit(worker));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - begin;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int quantityOf(Integer id) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM Inventory WHERE inventory_id = ?", Integer.class, id);
+    }
+}
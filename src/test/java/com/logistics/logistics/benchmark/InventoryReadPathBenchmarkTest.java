@@ -0,0 +1,94 @@
+package com.logistics.logistics.benchmark;
+
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.model.Inventory;
+import com.logistics.logistics.repository.InventoryRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the entity read path (findAll + map, hydrating the eager warehouse and manager)
+ * with the JPQL constructor projection used by the list endpoints.
+ *
+ * Runs against the configured MySQL database and only when requested:
+ *   mvn test -Dtest=InventoryReadPathBenchmarkTest -Dbenchmark=true -Dbenchmark.rows=100000
+ * Add -Dspring.profiles.active=h2 to run it on in-memory H2 instead (src/test/resources/application-h2.properties).
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InventoryReadPathBenchmarkTest {
+
+    private static final int ITERATIONS = 5;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int rows;
+
+    @BeforeAll
+    void seed() {
+        rows = Integer.getInteger("benchmark.rows", 100_000);
+        BenchmarkData.seedInventory(jdbcTemplate, rows, 20);
+    }
+
+    @Test
+    void compareEntityAndProjectionPaths() {
+        Supplier<List<InventoryResponse>> entityPath = () -> inventoryRepository.findAll().stream()
+                .map(this::mapLikeService)
+                .collect(Collectors.toList());
+        Supplier<List<InventoryResponse>> projectionPath = inventoryRepository::findAllInventoryResponses;
+
+        // Warm up both paths before measuring
+        assertEquals(entityPath.get().size(), projectionPath.get().size());
+
+        long entityNanos = time(entityPath);
+        long projectionNanos = time(projectionPath);
+
+        System.out.printf("Inventory read path, %d rows, best of %d:%n", rows, ITERATIONS);
+        System.out.printf("  entity + map      : %8.1f ms%n", entityNanos / 1e6);
+        System.out.printf("  JPQL projection   : %8.1f ms%n", projectionNanos / 1e6);
+    }
+
+    private long time(Supplier<List<InventoryResponse>> path) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            path.get();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    // Mirrors the mapping the service used before the projection queries
+    private InventoryResponse mapLikeService(Inventory inventory) {
+        return InventoryResponse.builder()
+                .inventoryId(inventory.getInventoryId())
+                .itemName(inventory.getItemName())
+                .description(inventory.getDescription())
+                .sku(inventory.getSku())
+                .quantity(inventory.getQuantity())
+                .reorderPoint(inventory.getReorderPoint())
+                .reorderQuantity(inventory.getReorderQuantity())
+                .unitPrice(inventory.getUnitPrice())
+                .warehouseId(inventory.getWarehouse().getWarehouseId())
+                .warehouseName(inventory.getWarehouse().getName())
+                .updatedAt(inventory.getUpdatedAt())
+                .needsRestock(inventory.getQuantity() <= inventory.getReorderPoint())
+                .build();
+    }
+}
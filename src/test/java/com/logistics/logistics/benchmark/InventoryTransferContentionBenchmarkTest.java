@@ -0,0 +1,200 @@
+package com.logistics.logistics.benchmark;
+
+import com.logistics.logistics.dto.TransferLine;
+import com.logistics.logistics.service.InventoryBatchService;
+import com.logistics.logistics.service.InventoryService;
+import com.logistics.logistics.service.TransferPipeline;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * N threads shuffle stock of a few SKUs back and forth between M warehouses, including transfers in
+ * opposite directions at the same time. Afterwards every SKU must hold exactly the stock it started
+ * with and no row may be negative. The run is repeated with a single hot SKU and with many SKUs to
+ * show that unrelated SKUs do not serialise on each other. Another run moves the same lines once through
+ * the single-transfer path and once as one bulk transfer, and a last one compares how long submitting
+ * a transfer to the asynchronous pipeline takes with how long the pipeline needs to drain.
+ *
+ * Runs against the configured MySQL database and only when requested:
+ *   mvn test -Dtest=InventoryTransferContentionBenchmarkTest -Dbenchmark=true -Dbenchmark.threads=16
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InventoryTransferContentionBenchmarkTest {
+
+    private static final int START_QUANTITY = 1_000;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryBatchService inventoryBatchService;
+
+    @Autowired
+    private TransferPipeline transferPipeline;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final int threads = Integer.getInteger("benchmark.threads", 16);
+    private final int warehouses = Integer.getInteger("benchmark.warehouses", 4);
+    private final int transfersPerThread = Integer.getInteger("benchmark.ops", 200);
+
+    @Test
+    void oneHotSku() throws Exception {
+        shuffle(1);
+    }
+
+    @Test
+    void manyUnrelatedSkus() throws Exception {
+        shuffle(threads * 4);
+    }
+
+    @Test
+    void compareSingleAndBulkTransfers() {
+        int lineCount = Integer.getInteger("benchmark.lines", 500);
+        List<Integer> warehouseIds = BenchmarkData.seedInventory(jdbcTemplate, lineCount * 2, 2);
+        Map<String, Object> manager = jdbcTemplate.queryForMap("SELECT user_id, username FROM Users ORDER BY user_id DESC LIMIT 1");
+        List<Integer> sourceIds = jdbcTemplate.queryForList(
+                "SELECT inventory_id FROM Inventory WHERE warehouse_id = ? ORDER BY inventory_id", Integer.class, warehouseIds.get(0));
+        jdbcTemplate.update("UPDATE Inventory SET quantity = ? WHERE warehouse_id = ?", START_QUANTITY, warehouseIds.get(0));
+
+        List<TransferLine> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(new TransferLine(sourceIds.get(i), warehouseIds.get(1), 1));
+        }
+
+        long singleStart = System.nanoTime();
+        for (TransferLine line : lines) {
+            inventoryService.transferInventory(line.getSourceInventoryId(), line.getDestinationWarehouseId(),
+                    line.getQuantity(), ((Number) manager.get("user_id")).intValue());
+        }
+        long singleNanos = System.nanoTime() - singleStart;
+
+        long bulkStart = System.nanoTime();
+        inventoryBatchService.transferInventoryBulk(lines, (String) manager.get("username"));
+        long bulkNanos = System.nanoTime() - bulkStart;
+
+        System.out.printf("%d transfer lines between 2 warehouses:%n", lineCount);
+        System.out.printf("  single transfers : %8.1f ms%n", singleNanos / 1e6);
+        System.out.printf("  one bulk transfer: %8.1f ms%n", bulkNanos / 1e6);
+        for (Integer sourceId : sourceIds.subList(0, lineCount)) {
+            assertEquals(START_QUANTITY - 2, jdbcTemplate.queryForObject(
+                    "SELECT quantity FROM Inventory WHERE inventory_id = ?", Integer.class, sourceId));
+        }
+    }
+
+    @Test
+    void asyncSubmitLatency() throws Exception {
+        int count = Integer.getInteger("benchmark.lines", 500);
+        List<Integer> warehouseIds = BenchmarkData.seedInventory(jdbcTemplate, 2, 2);
+        String username = jdbcTemplate.queryForObject("SELECT username FROM Users ORDER BY user_id DESC LIMIT 1", String.class);
+        Integer sourceId = jdbcTemplate.queryForObject(
+                "SELECT inventory_id FROM Inventory WHERE warehouse_id = ? ORDER BY inventory_id LIMIT 1", Integer.class, warehouseIds.get(0));
+        jdbcTemplate.update("UPDATE Inventory SET quantity = ? WHERE inventory_id = ?", count, sourceId);
+
+        // Timed per request: only recording the transfer, not moving the stock
+        long[] submitNanos = new long[count];
+        List<Integer> transferIds = new ArrayList<>(count);
+        long begin = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            transferIds.add(transferPipeline.submit(sourceId, warehouseIds.get(1), 1, username).getTransferId());
+            submitNanos[i] = System.nanoTime() - start;
+        }
+        for (Integer transferId : transferIds) {
+            while (!"COMPLETED".equals(inventoryService.getTransferById(transferId).getStatus())) {
+                Thread.sleep(10);
+            }
+        }
+        long drainNanos = System.nanoTime() - begin;
+
+        Arrays.sort(submitNanos);
+        System.out.printf("%d transfers through the pipeline:%n", count);
+        System.out.printf("  submit p50 %6.2f ms, p99 %6.2f ms%n", submitNanos[count / 2] / 1e6, submitNanos[count * 99 / 100] / 1e6);
+        System.out.printf("  all completed after %8.1f ms%n", drainNanos / 1e6);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT quantity FROM Inventory WHERE inventory_id = ?", Integer.class, sourceId));
+    }
+
+    private void shuffle(int skus) throws Exception {
+        List<Integer> warehouseIds = BenchmarkData.seedInventory(jdbcTemplate, skus * warehouses, warehouses);
+        String placeholders = warehouseIds.stream().map(id -> "?").collect(Collectors.joining(","));
+        jdbcTemplate.update("UPDATE Inventory SET quantity = " + START_QUANTITY + " WHERE warehouse_id IN (" + placeholders + ")",
+                warehouseIds.toArray());
+        Integer userId = jdbcTemplate.queryForObject("SELECT MAX(user_id) FROM Users", Integer.class);
+
+        // inventoryIds.get(sku).get(w) is the row for that SKU in warehouseIds.get(w)
+        List<List<Integer>> inventoryIds = new ArrayList<>();
+        for (int sku = 0; sku < skus; sku++) {
+            List<Integer> rows = new ArrayList<>();
+            for (Integer warehouseId : warehouseIds) {
+                rows.add(jdbcTemplate.queryForObject("SELECT inventory_id FROM Inventory WHERE sku = ? AND warehouse_id = ?",
+                        Integer.class, "BENCH-" + sku, warehouseId));
+            }
+            inventoryIds.add(rows);
+        }
+
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int op = 0; op < transfersPerThread; op++) {
+                    int sku = random.nextInt(skus);
+                    int from = random.nextInt(warehouses);
+                    int to = (from + 1 + random.nextInt(warehouses - 1)) % warehouses;
+                    try {
+                        inventoryService.transferInventory(inventoryIds.get(sku).get(from), warehouseIds.get(to),
+                                1 + random.nextInt(5), userId);
+                        completed.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        // Source ran dry; expected now and then with random shuffling
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        List<Map<String, Object>> totals = jdbcTemplate.queryForList(
+                "SELECT sku, SUM(quantity) AS total, MIN(quantity) AS lowest FROM Inventory WHERE warehouse_id IN ("
+                        + placeholders + ") GROUP BY sku", warehouseIds.toArray());
+        for (Map<String, Object> row : totals) {
+            assertEquals((long) START_QUANTITY * warehouses, ((Number) row.get("total")).longValue(), "stock of " + row.get("sku"));
+            assertTrue(((Number) row.get("lowest")).intValue() >= 0, "negative stock for " + row.get("sku"));
+        }
+
+        System.out.printf("Transfers, %d threads, %d warehouses, %d SKUs:%n", threads, warehouses, skus);
+        System.out.printf("  %d completed, %d rejected, %8.0f transfers/s%n",
+                completed.get(), rejected.get(), completed.get() / (elapsed / 1e9));
+    }
+}
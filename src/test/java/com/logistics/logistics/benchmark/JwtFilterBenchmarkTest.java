@@ -0,0 +1,166 @@
+package com.logistics.logistics.benchmark;
+
+import com.logistics.logistics.model.User;
+import com.logistics.logistics.model.UserRole;
+import com.logistics.logistics.repository.UserRepository;
+import com.logistics.logistics.security.JwtAuthenticationFilter;
+import com.logistics.logistics.security.TokenRevocationList;
+import com.logistics.logistics.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Per-request cost of authenticating a bearer token, in nanoseconds per request:
+ *   before      - what JwtAuthenticationFilter did originally: a new key and parser for each of the
+ *                 three parses of the token, plus a user query;
+ *   first sight - the filter with a token it has not verified yet (one parse with the shared parser);
+ *   repeat      - the filter with a token it has already verified (hash lookup, no HMAC check);
+ *   revocation  - the revocation check alone for a token that is not revoked, with other tokens and
+ *                 users revoked.
+ *
+ * JMH is not part of this build, so this is a plain timed loop with warm-up and the median of
+ * benchmark.rounds rounds. Runs against the configured database and only when requested:
+ *   mvn test -Dtest=JwtFilterBenchmarkTest -Dbenchmark=true -Dbenchmark.iterations=20000
+ * Add -Dspring.profiles.active=h2 to run it on in-memory H2 instead (src/test/resources/application-h2.properties).
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtFilterBenchmarkTest {
+
+    private static final FilterChain NO_OP = (request, response) -> {
+    };
+
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    private final int iterations = Integer.getInteger("benchmark.iterations", 20_000);
+    private final int rounds = Integer.getInteger("benchmark.rounds", 5);
+
+    @Test
+    void compareFilterCost() throws Exception {
+        User user = userRepository.save(User.builder()
+                .username("bench-jwt-" + System.nanoTime())
+                .email("bench-jwt-" + System.nanoTime() + "@example.com")
+                .passwordHash("not-a-hash")
+                .role(UserRole.WAREHOUSE_STAFF)
+                .build());
+        String token = jwtService.generateToken(user);
+        // Warm-up plus every round needs tokens the filter has never seen
+        String[] distinctTokens = new String[iterations * (rounds + 1)];
+        for (int i = 0; i < distinctTokens.length; i++) {
+            distinctTokens[i] = signDistinct(user, i);
+        }
+
+        double before = median(i -> legacyFilter(token));
+        int[] next = {0};
+        double firstSight = median(i -> filter(distinctTokens[next[0]++]));
+        double repeat = median(i -> filter(token));
+
+        for (int i = 0; i < 100; i++) {
+            tokenRevocationList.revokeToken(jwtService.verify(distinctTokens[i]));
+        }
+        tokenRevocationList.revokeUser("bench-revoked-" + System.nanoTime());
+        JwtService.VerifiedToken verified = jwtService.verify(token);
+        double revocation = median(i -> tokenRevocationList.isRevoked(verified));
+
+        System.out.printf("Bearer token authentication, %d requests x %d rounds (median ns/request):%n", iterations, rounds);
+        System.out.printf("  before (3 parses, key and parser per parse, user query): %10.0f%n", before);
+        System.out.printf("  after, first sight of token (1 parse, cached role):      %10.0f%n", firstSight);
+        System.out.printf("  after, repeat bearer (verified-token cache hit):         %10.0f%n", repeat);
+        System.out.printf("  revocation check alone (not revoked):                    %10.0f%n", revocation);
+    }
+
+    private double median(Function<Integer, Object> request) {
+        for (int i = 0; i < iterations; i++) {
+            assertNotNull(request.apply(i));
+        }
+        double[] samples = new double[rounds];
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                request.apply(i);
+            }
+            samples[round] = (System.nanoTime() - start) / (double) iterations;
+        }
+        Arrays.sort(samples);
+        return samples[rounds / 2];
+    }
+
+    private Object filter(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/inventory");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            jwtAuthenticationFilter.doFilter(request, new MockHttpServletResponse(), NO_OP);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // The original filter and JwtService, inlined
+    private Object legacyFilter(String token) {
+        String username = legacyClaims(token).getSubject();
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        boolean valid = legacyClaims(token).getSubject().equals(userDetails.getUsername())
+                && !legacyClaims(token).getExpiration().before(new Date());
+        return valid ? userDetails : null;
+    }
+
+    private Claims legacyClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    // Same claims as an issued token, made unique so none of them is served from the verified-token cache
+    private String signDistinct(User user, int nonce) {
+        return Jwts.builder()
+                .claim(JwtService.ROLE_CLAIM, user.getRoleValue())
+                .claim("nonce", nonce)
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getUsername())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
@@ -0,0 +1,89 @@
+package com.logistics.logistics.controller;
+
+import com.logistics.logistics.TestData;
+import com.logistics.logistics.repository.InventoryRepository;
+import com.logistics.logistics.service.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class IdempotencyFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void retryIsReplayedWithoutRunningAgain() throws Exception {
+        Integer id = TestData.createItem(inventoryService, TestData.createWarehouse(jdbcTemplate), "Idempotent item", 10, null);
+        String key = TestData.unique("key");
+
+        MvcResult first = mockMvc.perform(adjust(id, 3, key, "staff"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNull(first.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER));
+
+        MvcResult retry = mockMvc.perform(adjust(id, 3, key, "staff"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andReturn();
+
+        assertEquals(first.getResponse().getContentAsString(), retry.getResponse().getContentAsString());
+        assertEquals(13, inventoryRepository.findById(id).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsRejected() throws Exception {
+        Integer id = TestData.createItem(inventoryService, TestData.createWarehouse(jdbcTemplate), "Idempotent item", 10, null);
+        String key = TestData.unique("key");
+        mockMvc.perform(adjust(id, 3, key, "staff")).andExpect(status().isOk());
+
+        mockMvc.perform(adjust(id, 4, key, "staff")).andExpect(status().isUnprocessableEntity());
+        assertEquals(13, inventoryRepository.findById(id).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void keysAreScopedToTheUser() throws Exception {
+        Integer id = TestData.createItem(inventoryService, TestData.createWarehouse(jdbcTemplate), "Idempotent item", 10, null);
+        String key = TestData.unique("key");
+        mockMvc.perform(adjust(id, 3, key, "staff")).andExpect(status().isOk());
+
+        mockMvc.perform(adjust(id, 3, key, "other-staff"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(16, inventoryRepository.findById(id).orElseThrow().getQuantity());
+    }
+
+    private static MockHttpServletRequestBuilder adjust(Integer id, int quantityChange, String key, String username) {
+        return patch("/api/inventory/{id}/quantity", id)
+                .with(user(username).roles("WAREHOUSE_STAFF"))
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"quantityChange\": " + quantityChange + "}");
+    }
+}
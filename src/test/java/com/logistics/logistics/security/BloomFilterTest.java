@@ -0,0 +1,38 @@
+package com.logistics.logistics.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    private static final int ENTRIES = 10_000;
+
+    @Test
+    void addedValuesAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(ENTRIES, 0.01);
+        for (int i = 0; i < ENTRIES; i++) {
+            filter.add("token-" + i);
+        }
+        for (int i = 0; i < ENTRIES; i++) {
+            assertTrue(filter.mightContain("token-" + i), "false negative for token-" + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheConfiguredRate() {
+        BloomFilter filter = new BloomFilter(ENTRIES, 0.01);
+        for (int i = 0; i < ENTRIES; i++) {
+            filter.add("token-" + i);
+        }
+        int probes = 100_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        // Twice the configured rate leaves room for hash quality without hiding a broken filter
+        assertTrue(falsePositives < probes * 0.02, "false positives: " + falsePositives);
+    }
+}
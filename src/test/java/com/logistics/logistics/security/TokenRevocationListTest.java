@@ -0,0 +1,80 @@
+package com.logistics.logistics.security;
+
+import com.logistics.logistics.TestData;
+import com.logistics.logistics.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class TokenRevocationListTest {
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Test
+    void revokedTokenIsRejectedAndOthersAreNot() {
+        String username = TestData.unique("revoke-token");
+        JwtService.VerifiedToken revoked = token(username, UUID.randomUUID().toString(), Instant.now());
+        JwtService.VerifiedToken other = token(username, UUID.randomUUID().toString(), Instant.now());
+
+        tokenRevocationList.revokeToken(revoked);
+
+        assertTrue(tokenRevocationList.isRevoked(revoked));
+        assertFalse(tokenRevocationList.isRevoked(other));
+    }
+
+    @Test
+    void revokingAUserRejectsOnlyTokensIssuedBefore() {
+        String username = TestData.unique("revoke-user");
+        JwtService.VerifiedToken older = token(username, UUID.randomUUID().toString(), Instant.now().minusSeconds(60));
+        JwtService.VerifiedToken otherUser = token(TestData.unique("revoke-user"), UUID.randomUUID().toString(),
+                Instant.now().minusSeconds(60));
+
+        tokenRevocationList.revokeUser(username);
+        JwtService.VerifiedToken newer = token(username, UUID.randomUUID().toString(),
+                Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(2));
+
+        assertTrue(tokenRevocationList.isRevoked(older));
+        assertFalse(tokenRevocationList.isRevoked(newer));
+        assertFalse(tokenRevocationList.isRevoked(otherUser));
+    }
+
+    @Test
+    void tokenWithoutIdIsRevokedThroughItsUser() {
+        String username = TestData.unique("revoke-no-jti");
+        JwtService.VerifiedToken withoutId = token(username, null, Instant.now().minusSeconds(1));
+
+        tokenRevocationList.revokeToken(withoutId);
+
+        assertTrue(tokenRevocationList.isRevoked(withoutId));
+    }
+
+    @Test
+    void revocationsSurviveAReload() {
+        String username = TestData.unique("revoke-reload");
+        JwtService.VerifiedToken revoked = token(username, UUID.randomUUID().toString(), Instant.now());
+        JwtService.VerifiedToken older = token(TestData.unique("revoke-reload"), UUID.randomUUID().toString(),
+                Instant.now().minusSeconds(60));
+        tokenRevocationList.revokeToken(revoked);
+        tokenRevocationList.revokeUser(older.username());
+
+        tokenRevocationList.reload();
+
+        assertTrue(tokenRevocationList.isRevoked(revoked));
+        assertTrue(tokenRevocationList.isRevoked(older));
+    }
+
+    private static JwtService.VerifiedToken token(String username, String tokenId, Instant issuedAt) {
+        return new JwtService.VerifiedToken(username, "ADMIN", tokenId, issuedAt, issuedAt.plusSeconds(3600));
+    }
+}
@@ -0,0 +1,49 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.TestData;
+import com.logistics.logistics.dto.InventoryImportError;
+import com.logistics.logistics.dto.InventoryImportResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "inventory.import.max-record-length=200")
+@ActiveProfiles("h2")
+class InventoryImportServiceTest {
+
+    @Autowired
+    private InventoryImportService inventoryImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void unbalancedQuoteFailsOnlyItsOwnRow() throws Exception {
+        Integer warehouseId = TestData.createWarehouse(jdbcTemplate);
+        String csv = "sku,itemName,quantity,warehouseId\n"
+                + TestData.unique("CSV") + ",Good item,1," + warehouseId + "\n"
+                + TestData.unique("CSV") + ",\"Unbalanced" + "x".repeat(300) + ",1," + warehouseId + "\n"
+                + TestData.unique("CSV") + ",Bad quantity,many," + warehouseId + "\n"
+                + TestData.unique("CSV") + ",Last item,4," + warehouseId + "\n";
+
+        InventoryImportResponse response = inventoryImportService.importInventory(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "csv", InventoryImportService.MODE_INSERT);
+
+        assertEquals(4, response.getTotalRows());
+        assertEquals(2, response.getInserted());
+        assertEquals(2, response.getFailed());
+        List<InventoryImportError> errors = response.getErrors();
+        assertEquals(2, errors.get(0).getRow());
+        assertTrue(errors.get(0).getMessage().contains("longer than 200"));
+        assertEquals(3, errors.get(1).getRow());
+    }
+}
@@ -0,0 +1,128 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.TestData;
+import com.logistics.logistics.dto.InventoryQuantityAtResponse;
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.model.Inventory;
+import com.logistics.logistics.model.InventoryMovement;
+import com.logistics.logistics.repository.InventoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that ledger snapshots stay exact when a transaction that already appended its movement is
+ * slow to commit, which is when a snapshot up to a global sequence number used to lose the movement.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class InventoryLedgerTest {
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void snapshotWaitsForSlowTransactionAndStaysExact() throws Exception {
+        Integer warehouseId = TestData.createWarehouse(jdbcTemplate);
+        Integer slowId = TestData.createItem(inventoryService, warehouseId, "Ledger slow item", 10, null);
+        Integer otherId = TestData.createItem(inventoryService, warehouseId, "Ledger other item", 10, null);
+
+        // Changes a managed entity without flushing it, then stops after the ledger's beforeCommit
+        CountDownLatch appended = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> slow = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            Inventory inventory = inventoryRepository.findById(slowId).orElseThrow();
+            InventoryResponse before = response(inventory);
+            inventory.setQuantity(inventory.getQuantity() + 5);
+            eventPublisher.publishEvent(new InventoryChangedEvent(before, response(inventory),
+                    InventoryMovement.MovementType.ADJUSTMENT));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    appended.countDown();
+                    awaitQuietly(release);
+                }
+            });
+        }));
+        assertTrue(appended.await(10, TimeUnit.SECONDS));
+
+        // A later sequence commits first
+        inventoryService.updateInventoryQuantity(otherId, 1);
+
+        Future<Integer> snapshot = executor.submit(inventoryLedger::snapshot);
+        Thread.sleep(300);
+        assertFalse(snapshot.isDone(), "snapshot must wait for the row whose movement is still in flight");
+
+        release.countDown();
+        slow.get(10, TimeUnit.SECONDS);
+        assertTrue(snapshot.get(10, TimeUnit.SECONDS) >= 2);
+
+        InventoryQuantityAtResponse slowAt = inventoryLedger.getQuantityAt(slowId, null);
+        assertEquals(15, slowAt.getQuantity());
+        assertEquals(slowAt.getSequence(), slowAt.getSnapshotSequence());
+        assertEquals(0L, slowAt.getReplayedMovements());
+        assertEquals(11, inventoryLedger.getQuantityAt(otherId, null).getQuantity());
+
+        // The next snapshot starts after the newest one and still counts the late movement once
+        inventoryService.updateInventoryQuantity(slowId, 2);
+        inventoryLedger.snapshot();
+        assertEquals(17, inventoryLedger.getQuantityAt(slowId, null).getQuantity());
+        assertEquals(17, inventoryRepository.findById(slowId).orElseThrow().getQuantity());
+    }
+
+    private static InventoryResponse response(Inventory inventory) {
+        return InventoryResponse.builder()
+                .inventoryId(inventory.getInventoryId())
+                .sku(inventory.getSku())
+                .quantity(inventory.getQuantity())
+                .warehouseId(inventory.getWarehouse().getWarehouseId())
+                .build();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.TestData;
+import com.logistics.logistics.dto.InventoryPageResponse;
+import com.logistics.logistics.dto.InventoryResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Walks keyset pages to the end for every sort, including item names shared by several rows, and
+ * checks each row is returned exactly once and in order.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class InventoryPageTest {
+
+    private static final int ITEMS = 23;
+    private static final int PAGE_SIZE = 5;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void pagesCoverEveryRowOnceInEachSort() {
+        Integer warehouseId = TestData.createWarehouse(jdbcTemplate);
+        List<Integer> created = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            // Only four distinct names, so ties must be broken by id
+            created.add(TestData.createItem(inventoryService, warehouseId, "Item " + (char) ('D' - i % 4), i, null));
+        }
+
+        assertPagesInOrder(warehouseId, "id", Comparator.comparing(InventoryResponse::getInventoryId), created);
+        assertPagesInOrder(warehouseId, "itemName", Comparator.comparing(InventoryResponse::getItemName)
+                .thenComparing(InventoryResponse::getInventoryId), created);
+        assertPagesInOrder(warehouseId, "sku", Comparator.comparing(InventoryResponse::getSku)
+                .thenComparing(InventoryResponse::getInventoryId), created);
+    }
+
+    @Test
+    void cursorOfAnotherSortIsRejected() {
+        Integer warehouseId = TestData.createWarehouse(jdbcTemplate);
+        for (int i = 0; i < PAGE_SIZE + 1; i++) {
+            TestData.createItem(inventoryService, warehouseId, "Cursor item " + i, i, null);
+        }
+        String cursor = inventoryService.getInventoryPageByWarehouse(warehouseId, null, PAGE_SIZE, "sku").getNextCursor();
+        assertNotNull(cursor);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> inventoryService.getInventoryPageByWarehouse(warehouseId, cursor, PAGE_SIZE, "itemName"));
+        assertThrows(IllegalArgumentException.class,
+                () -> inventoryService.getInventoryPageByWarehouse(warehouseId, "not-a-cursor", PAGE_SIZE, "sku"));
+    }
+
+    private void assertPagesInOrder(Integer warehouseId, String sort, Comparator<InventoryResponse> order,
+                                    List<Integer> expectedIds) {
+        List<InventoryResponse> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            InventoryPageResponse page = inventoryService.getInventoryPageByWarehouse(warehouseId, cursor, PAGE_SIZE, sort);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+            if (!page.getHasMore()) {
+                assertNull(cursor);
+            }
+        } while (cursor != null);
+
+        assertEquals((ITEMS + PAGE_SIZE - 1) / PAGE_SIZE, pages, sort);
+        assertEquals(new HashSet<>(expectedIds), new HashSet<>(seen.stream().map(InventoryResponse::getInventoryId).toList()), sort);
+        assertEquals(expectedIds.size(), seen.size(), sort);
+        for (int i = 1; i < seen.size(); i++) {
+            assertFalse(order.compare(seen.get(i - 1), seen.get(i)) > 0, sort + " out of order at " + i);
+        }
+    }
+}
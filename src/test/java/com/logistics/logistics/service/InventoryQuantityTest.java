@@ -0,0 +1,137 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.TestData;
+import com.logistics.logistics.dto.InventoryRequest;
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.repository.InventoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The conditional quantity UPDATE under concurrent use, and the version check of a full update.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class InventoryQuantityTest {
+
+    private static final int THREADS = 8;
+    private static final int OPS_PER_THREAD = 50;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentAdjustmentsLoseNoDeltas() throws Exception {
+        Integer id = TestData.createItem(inventoryService, TestData.createWarehouse(jdbcTemplate), "Hot item", 1000, null);
+
+        // Every thread alternates +3 and -2, so each pair nets +1
+        runConcurrently(op -> inventoryService.updateInventoryQuantity(id, op % 2 == 0 ? 3 : -2));
+
+        assertEquals(1000 + THREADS * OPS_PER_THREAD / 2, quantityOf(id));
+    }
+
+    @Test
+    void concurrentAdjustmentsNeverOversell() throws Exception {
+        int stock = THREADS * OPS_PER_THREAD / 4;
+        Integer id = TestData.createItem(inventoryService, TestData.createWarehouse(jdbcTemplate), "Scarce item", stock, null);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(op -> {
+            try {
+                inventoryService.updateInventoryQuantity(id, -1);
+                sold.incrementAndGet();
+            } catch (IllegalArgumentException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(stock, sold.get());
+        assertEquals(THREADS * OPS_PER_THREAD - stock, rejected.get());
+        assertEquals(0, quantityOf(id));
+    }
+
+    @Test
+    void updateFromAStaleVersionIsAConflict() {
+        Integer id = TestData.createItem(inventoryService, TestData.createWarehouse(jdbcTemplate), "Versioned item", 10, 5);
+        InventoryResponse read = inventoryService.getInventoryById(id);
+
+        // Someone else moves stock after the client read the row
+        inventoryService.updateInventoryQuantity(id, 7);
+
+        InventoryRequest stale = request(read, 20, read.getVersion());
+        assertThrows(ConcurrencyFailureException.class, () -> inventoryService.updateInventory(id, stale));
+        assertEquals(17, quantityOf(id));
+
+        InventoryRequest withoutVersion = request(read, 20, null);
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.updateInventory(id, withoutVersion));
+
+        Long current = inventoryRepository.findById(id).orElseThrow().getVersion();
+        assertEquals(20, inventoryService.updateInventory(id, request(read, 20, current)).getQuantity());
+    }
+
+    private int quantityOf(Integer id) {
+        return inventoryRepository.findById(id).orElseThrow().getQuantity();
+    }
+
+    private void runConcurrently(IntConsumer operation) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int op = 0; op < OPS_PER_THREAD; op++) {
+                    operation.accept(op);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    private static InventoryRequest request(InventoryResponse read, int quantity, Long version) {
+        return InventoryRequest.builder()
+                .itemName(read.getItemName())
+                .sku(read.getSku())
+                .quantity(quantity)
+                .reorderPoint(read.getReorderPoint())
+                .unitPrice(read.getUnitPrice())
+                .warehouseId(read.getWarehouseId())
+                .version(version)
+                .build();
+    }
+}
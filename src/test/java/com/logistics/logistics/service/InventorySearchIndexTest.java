@@ -0,0 +1,80 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.TestData;
+import com.logistics.logistics.dto.InventoryRequest;
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.model.InventoryMovement;
+import com.logistics.logistics.repository.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The search index follows committed writes, ignores a change event that arrives after a newer version
+ * of its row was applied, and intersects the trigrams of the whole query.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class InventorySearchIndexTest {
+
+    @Autowired
+    private InventorySearchIndex inventorySearchIndex;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void followsRenamesAndIgnoresAnOlderEvent() {
+        Integer warehouseId = TestData.createWarehouse(jdbcTemplate);
+        Integer id = TestData.createItem(inventoryService, warehouseId, "Titanium bracket", 3, null);
+        InventoryResponse original = inventoryRepository.findInventoryResponseById(id).orElseThrow();
+        assertTrue(found("tanium", warehouseId, id));
+
+        InventoryResponse renamed = inventoryService.updateInventory(id, InventoryRequest.builder()
+                .itemName("Copper bracket")
+                .sku(original.getSku())
+                .quantity(original.getQuantity())
+                .warehouseId(warehouseId)
+                .version(original.getVersion())
+                .build());
+        assertFalse(found("tanium", warehouseId, id));
+        assertTrue(found("copper", warehouseId, id));
+
+        inventorySearchIndex.onInventoryChanged(new InventoryChangedEvent(renamed, original, InventoryMovement.MovementType.UPDATE));
+        assertFalse(found("tanium", warehouseId, id));
+        assertTrue(found("copper", warehouseId, id));
+    }
+
+    @Test
+    void intersectsTrigramsOfTheWholeQuery() {
+        Integer warehouseId = TestData.createWarehouse(jdbcTemplate);
+        Integer bolt = TestData.createItem(inventoryService, warehouseId, "Hex bolt steel", 1, null);
+        Integer nut = TestData.createItem(inventoryService, warehouseId, "Hex nut brass", 1, null);
+
+        List<Integer> hits = inventorySearchIndex.search("hex bolt", warehouseId, 10).stream()
+                .map(InventoryResponse::getInventoryId)
+                .toList();
+
+        assertEquals(List.of(bolt), hits);
+        assertFalse(hits.contains(nut));
+    }
+
+    private boolean found(String query, Integer warehouseId, Integer id) {
+        return inventorySearchIndex.search(query, warehouseId, 10).stream()
+                .anyMatch(item -> item.getInventoryId().equals(id));
+    }
+}
@@ -0,0 +1,70 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.TestData;
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.model.InventoryMovement;
+import com.logistics.logistics.repository.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The low-stock index follows committed writes and ignores a change event that arrives after a newer
+ * version of its row was applied.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class LowStockIndexTest {
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void followsQuantityChanges() {
+        Integer warehouseId = TestData.createWarehouse(jdbcTemplate);
+        Integer id = TestData.createItem(inventoryService, warehouseId, "Low stock item", 5, 10);
+        assertTrue(lowStock(warehouseId).contains(id));
+
+        inventoryService.updateInventoryQuantity(id, 20);
+        assertFalse(lowStock(warehouseId).contains(id));
+
+        inventoryService.updateInventoryQuantity(id, -16);
+        assertTrue(lowStock(warehouseId).contains(id));
+
+        inventoryService.deleteInventory(id);
+        assertFalse(lowStock(warehouseId).contains(id));
+    }
+
+    @Test
+    void ignoresAnOlderEvent() {
+        Integer warehouseId = TestData.createWarehouse(jdbcTemplate);
+        Integer id = TestData.createItem(inventoryService, warehouseId, "Restocked item", 5, 10);
+        InventoryResponse low = inventoryRepository.findInventoryResponseById(id).orElseThrow();
+        InventoryResponse restocked = inventoryService.updateInventoryQuantity(id, 20);
+
+        // The low-stock event of the first write is delivered after the restock
+        lowStockIndex.onInventoryChanged(new InventoryChangedEvent(restocked, low, InventoryMovement.MovementType.ADJUSTMENT));
+
+        assertFalse(lowStock(warehouseId).contains(id));
+    }
+
+    private List<Integer> lowStock(Integer warehouseId) {
+        return lowStockIndex.findByWarehouse(warehouseId).stream().map(InventoryResponse::getInventoryId).toList();
+    }
+}
@@ -0,0 +1,97 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.TestData;
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.model.Inventory;
+import com.logistics.logistics.model.InventoryMovement;
+import com.logistics.logistics.repository.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Write-behind with the scheduled flush pushed out of the way, so each test decides when to flush.
+ */
+@SpringBootTest(properties = {
+        "inventory.write-behind.enabled=true",
+        "inventory.write-behind.flush-interval-ms=3600000",
+        "inventory.write-behind.flush-threshold=1000000"
+})
+@ActiveProfiles("h2")
+class QuantityWriteBehindTest {
+
+    @Autowired
+    private QuantityWriteBehind quantityWriteBehind;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deltasOfOneRowAreCoalescedIntoOneWrite() {
+        Integer id = TestData.createItem(inventoryService, TestData.createWarehouse(jdbcTemplate), "Scanned item", 10, 5);
+        Inventory before = inventoryRepository.findById(id).orElseThrow();
+
+        InventoryResponse projected = null;
+        for (int i = 0; i < 50; i++) {
+            projected = quantityWriteBehind.record(id, 1);
+        }
+        for (int i = 0; i < 20; i++) {
+            projected = quantityWriteBehind.record(id, -1);
+        }
+        assertEquals(40, projected.getQuantity());
+        assertEquals(10, inventoryRepository.findById(id).orElseThrow().getQuantity());
+
+        quantityWriteBehind.flush();
+
+        Inventory after = inventoryRepository.findById(id).orElseThrow();
+        assertEquals(40, after.getQuantity());
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        // The CREATE and one ADJUSTMENT carrying the net delta
+        assertEquals(2, inventoryLedger.getMovements(id, null, 100).getMovements().size());
+    }
+
+    @Test
+    void projectedQuantityRejectsAnOverdraw() {
+        Integer id = TestData.createItem(inventoryService, TestData.createWarehouse(jdbcTemplate), "Scarce scanned item", 3, null);
+        quantityWriteBehind.record(id, -2);
+
+        assertThrows(IllegalArgumentException.class, () -> quantityWriteBehind.record(id, -2));
+
+        quantityWriteBehind.flush();
+        assertEquals(1, inventoryRepository.findById(id).orElseThrow().getQuantity());
+        // A row with nothing pending is dropped by the next flush and reloaded on its next delta
+        quantityWriteBehind.flush();
+        assertEquals(0, quantityWriteBehind.record(id, -1).getQuantity());
+    }
+
+    @Test
+    void olderEventDoesNotRebaseTheProjection() {
+        Integer id = TestData.createItem(inventoryService, TestData.createWarehouse(jdbcTemplate), "Rebased item", 10, null);
+        InventoryResponse original = inventoryRepository.findInventoryResponseById(id).orElseThrow();
+        quantityWriteBehind.record(id, 1);
+
+        InventoryResponse restocked = inventoryService.updateInventoryQuantity(id, 5);
+        assertEquals(17, quantityWriteBehind.record(id, 1).getQuantity());
+
+        // The event of an earlier write is delivered after the restock's
+        quantityWriteBehind.onInventoryChanged(new InventoryChangedEvent(restocked, original, InventoryMovement.MovementType.ADJUSTMENT));
+
+        assertEquals(18, quantityWriteBehind.record(id, 1).getQuantity());
+        quantityWriteBehind.flush();
+        assertEquals(18, inventoryRepository.findById(id).orElseThrow().getQuantity());
+    }
+}
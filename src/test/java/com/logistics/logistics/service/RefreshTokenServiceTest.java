@@ -0,0 +1,52 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Test
+    void rotationReplacesTheToken() {
+        String username = TestData.unique("refresh-user");
+        String first = refreshTokenService.issue(username);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(first);
+        assertEquals(username, rotation.username());
+        assertNotEquals(first, rotation.refreshToken());
+
+        RefreshTokenService.Rotation next = refreshTokenService.rotate(rotation.refreshToken());
+        assertEquals(username, next.username());
+    }
+
+    @Test
+    void reusedTokenRevokesItsWholeFamily() {
+        String username = TestData.unique("refresh-user");
+        String first = refreshTokenService.issue(username);
+        String second = refreshTokenService.rotate(first).refreshToken();
+        String unrelated = refreshTokenService.issue(username);
+
+        assertThrows(IllegalArgumentException.class, () -> refreshTokenService.rotate(first));
+        // The successor was issued to whoever presented the token first, which may be the attacker
+        assertThrows(IllegalArgumentException.class, () -> refreshTokenService.rotate(second));
+        // Other sessions of the user are a different family and keep working
+        assertEquals(username, refreshTokenService.rotate(unrelated).username());
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> refreshTokenService.rotate("not-a-refresh-token"));
+        assertThrows(IllegalArgumentException.class, () -> refreshTokenService.rotate(" "));
+    }
+}
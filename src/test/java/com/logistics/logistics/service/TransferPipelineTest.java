@@ -0,0 +1,102 @@
+package com.logistics.logistics.service;
+
+import com.logistics.logistics.TestData;
+import com.logistics.logistics.dto.InventoryResponse;
+import com.logistics.logistics.model.InventoryTransfer;
+import com.logistics.logistics.repository.InventoryRepository;
+import com.logistics.logistics.repository.InventoryTransferRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stripe timeouts kept short so contention shows up within the test.
+ */
+@SpringBootTest(properties = {
+        "inventory.transfer.lock-timeout-ms=200",
+        "inventory.transfer.redispatch-delay-ms=100",
+        "inventory.transfer.max-redispatches=100"
+})
+@ActiveProfiles("h2")
+class TransferPipelineTest {
+
+    @Autowired
+    private TransferPipeline transferPipeline;
+
+    @Autowired
+    private TransferCoordinator transferCoordinator;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryTransferRepository inventoryTransferRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void transferThatTimesOutOnAHeldStripeIsNotCancelled() throws Exception {
+        Integer sourceWarehouseId = TestData.createWarehouse(jdbcTemplate);
+        Integer destinationWarehouseId = TestData.createWarehouse(jdbcTemplate);
+        Integer id = TestData.createItem(inventoryService, sourceWarehouseId, "Contended item", 10, null);
+        InventoryResponse source = inventoryRepository.findInventoryResponseById(id).orElseThrow();
+        String username = jdbcTemplate.queryForObject(
+                "SELECT u.username FROM Users u JOIN Warehouses w ON w.manager_id = u.user_id WHERE w.warehouse_id = ?",
+                String.class, sourceWarehouseId);
+
+        // Another transfer of the same stock holds the stripes until released
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transferCoordinator.execute(
+                List.of(new TransferCoordinator.StockKey(source.getSku(), sourceWarehouseId)), () -> {
+                    holding.countDown();
+                    await(release);
+                }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        Integer transferId = transferPipeline.submit(id, destinationWarehouseId, 4, username).getTransferId();
+        try {
+            // Several stripe timeouts pass while the stock is held
+            Thread.sleep(1000);
+            assertNotEquals(InventoryTransfer.TransferStatus.CANCELLED, statusOf(transferId));
+            assertEquals(10, inventoryRepository.findById(id).orElseThrow().getQuantity());
+        } finally {
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (statusOf(transferId) != InventoryTransfer.TransferStatus.COMPLETED && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(InventoryTransfer.TransferStatus.COMPLETED, statusOf(transferId));
+        assertEquals(6, inventoryRepository.findById(id).orElseThrow().getQuantity());
+    }
+
+    private InventoryTransfer.TransferStatus statusOf(Integer transferId) {
+        return inventoryTransferRepository.findById(transferId).orElseThrow().getStatus();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}